@@ -0,0 +1,58 @@
+package dev.yapm.blendberry.benchmark;
+
+import dev.yapm.blendberry.entity.RemoteConfig;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds {@link RemoteConfig} documents of representative shapes and sizes.
+ */
+final class ConfigFixtures {
+
+    private ConfigFixtures() {}
+
+    /**
+     * Builds a configuration whose {@code configs} map has the given number of top-level keys.
+     * Every tenth key holds a nested feature-flag object, the others mix strings, numbers, and booleans.
+     */
+    static RemoteConfig config(String appId, String env, String version, int keys) {
+        Map<String, Object> configs = new LinkedHashMap<>();
+        for (int i = 0; i < keys; i++) {
+            String key = "key" + i;
+            switch (i % 10) {
+                case 0 -> configs.put(key, Map.of(
+                    "enabled", i % 20 == 0,
+                    "rollout", i % 100,
+                    "variants", List.of("control", "treatment-" + i)));
+                case 1, 2, 3 -> configs.put(key, "value-" + i);
+                case 4, 5, 6 -> configs.put(key, i * 31L);
+                default -> configs.put(key, i % 2 == 0);
+            }
+        }
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        RemoteConfig config = new RemoteConfig();
+        config.setAppId(appId);
+        config.setEnv(env);
+        config.setVersion(version);
+        config.setConfigs(configs);
+        config.setCreationDate(now);
+        config.setLastModDate(now);
+        config.setRevision(0L);
+        return config;
+    }
+
+    /**
+     * Maps a size label used in benchmark parameters to a number of top-level keys.
+     */
+    static int keys(String size) {
+        return switch (size) {
+            case "small" -> 10;
+            case "medium" -> 1_000;
+            case "huge" -> 50_000;
+            default -> throw new IllegalArgumentException("Unknown size " + size);
+        };
+    }
+}
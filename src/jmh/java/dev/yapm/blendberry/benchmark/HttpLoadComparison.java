@@ -0,0 +1,185 @@
+package dev.yapm.blendberry.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end load comparison of running instances, typically one serving through the servlet stack and one through
+ * the reactive stack, against the same database.
+ *
+ * <p>Each instance gets a configuration seeded through {@code POST /configs}, then {@code clients} closed-loop clients
+ * alternate {@code GET /configs/{env}} and {@code GET /configs/lookup} calls for the given duration. Throughput, error
+ * count and p50/p99 latencies are printed per instance and endpoint. Unlike the JMH benchmarks, this measures the
+ * whole HTTP path, so run the client on a different host than the servers to keep it from skewing the results.</p>
+ *
+ * <p>Usage: {@code HttpLoadComparison <baseUrl>... [-clients N] [-duration ISO-8601] [-warmup ISO-8601]}</p>
+ */
+public class HttpLoadComparison {
+
+    private static final String APP_ID = "load-comparison";
+
+    private static final String ENV = "prod";
+
+    private static final String VERSION = "1.0.0";
+
+    private static final Pattern LAST_MOD_DATE = Pattern.compile("\"lastModDate\"\\s*:\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        List<String> baseUrls = new ArrayList<>();
+        int clients = 256;
+        Duration duration = Duration.ofSeconds(30);
+        Duration warmup = Duration.ofSeconds(10);
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-clients" -> clients = Integer.parseInt(args[++i]);
+                case "-duration" -> duration = Duration.parse(args[++i]);
+                case "-warmup" -> warmup = Duration.parse(args[++i]);
+                default -> baseUrls.add(args[i].replaceAll("/+$", ""));
+            }
+        }
+        if (baseUrls.isEmpty()) {
+            System.err.println("Usage: HttpLoadComparison <baseUrl>... [-clients N] [-duration PT30S] [-warmup PT10S]");
+            System.exit(2);
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()))
+            .build();
+
+        System.out.printf("%-32s %-8s %12s %8s %10s %10s%n",
+            "instance", "endpoint", "req/s", "errors", "p50 ms", "p99 ms");
+        for (String baseUrl : baseUrls) {
+            String lastModDate = seed(client, baseUrl);
+            run(client, baseUrl, lastModDate, clients, warmup);
+            Result[] results = run(client, baseUrl, lastModDate, clients, duration);
+            results[0].print(baseUrl, "get", duration);
+            results[1].print(baseUrl, "lookup", duration);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Saves the configuration the clients read, or reuses the one a previous run left behind.
+     *
+     * @return its last modification date, as the lookup calls send it.
+     */
+    private static String seed(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        StringBuilder configs = new StringBuilder();
+        for (int i = 0; i < 50; i++)
+            configs.append(i == 0 ? "" : ",").append("\"flag").append(i).append("\":").append(i % 2 == 0);
+        String body = "{\"appId\":\"" + APP_ID + "\",\"env\":\"" + ENV + "\",\"version\":\"" + VERSION
+            + "\",\"configs\":{" + configs + "}}";
+        client.send(
+            HttpRequest.newBuilder(URI.create(baseUrl + "/configs"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(),
+            HttpResponse.BodyHandlers.discarding()
+        );
+        HttpResponse<String> current = client.send(getRequest(baseUrl), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = LAST_MOD_DATE.matcher(current.body());
+        if (current.statusCode() != 200 || !matcher.find())
+            throw new IllegalStateException("Could not seed " + baseUrl + ": HTTP " + current.statusCode());
+        return matcher.group(1);
+    }
+
+    private static Result[] run(
+        HttpClient client, String baseUrl, String lastModDate, int clients, Duration duration
+    ) throws InterruptedException {
+        HttpRequest get = getRequest(baseUrl);
+        HttpRequest lookup = HttpRequest.newBuilder(URI.create(baseUrl + "/configs/lookup?env=" + ENV
+                + "&version=" + VERSION + "&lastModDate=" + lastModDate))
+            .header("App-Id", APP_ID)
+            .build();
+        Result[] results = {new Result(), new Result()};
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(clients);
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        for (int c = 0; c < clients; c++) {
+            int offset = c;
+            workers.execute(() -> {
+                try {
+                    for (long n = offset; System.nanoTime() < deadline; n++) {
+                        int endpoint = (int) (n & 1);
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(
+                                endpoint == 0 ? get : lookup, HttpResponse.BodyHandlers.discarding()
+                            );
+                            results[endpoint].record(System.nanoTime() - start, response.statusCode() == 200);
+                        } catch (IOException e) {
+                            results[endpoint].record(System.nanoTime() - start, false);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.MINUTES);
+        return results;
+    }
+
+    private static HttpRequest getRequest(String baseUrl) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/configs/" + ENV + "?version=" + VERSION))
+            .header("App-Id", APP_ID)
+            .build();
+    }
+
+    /**
+     * Latencies of one endpoint, kept in a plain array per recorded call since a run holds at most a few million.
+     */
+    private static final class Result {
+
+        private long[] latencies = new long[1 << 16];
+
+        private int count;
+
+        private long errors;
+
+        synchronized void record(long nanos, boolean ok) {
+            if (!ok) {
+                errors++;
+                return;
+            }
+            if (count == latencies.length)
+                latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+        }
+
+        synchronized void print(String baseUrl, String endpoint, Duration duration) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf(
+                "%-32s %-8s %12.1f %8d %10.2f %10.2f%n",
+                baseUrl, endpoint, count / (duration.toMillis() / 1000.0), errors,
+                percentile(sorted, 0.50), percentile(sorted, 0.99)
+            );
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0)
+                return Double.NaN;
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package dev.yapm.blendberry.benchmark;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import dev.yapm.blendberry.cache.RemoteConfigCache;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.LatestConfigPointer;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.fallback.LocalConfigStore;
+import dev.yapm.blendberry.fallback.MongoReachability;
+import dev.yapm.blendberry.metrics.RemoteConfigMetrics;
+import dev.yapm.blendberry.repository.ConfigFreshness;
+import dev.yapm.blendberry.repository.ConfigRevisionRepository;
+import dev.yapm.blendberry.repository.LatestConfigPointerRepository;
+import dev.yapm.blendberry.repository.RemoteConfigRepository;
+import dev.yapm.blendberry.service.ConfigLayerService;
+import dev.yapm.blendberry.service.ConfigRevisionService;
+import dev.yapm.blendberry.service.LatestConfigPointerService;
+import dev.yapm.blendberry.service.RemoteConfigService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Map-backed stand-ins for the Mongo repositories, implementing only the read methods used on the serving path.
+ *
+ * <p>They isolate the cost of the service layer from the database. Every other repository method throws
+ * {@link UnsupportedOperationException}. A simulated round-trip latency can be added to each read, to benchmark
+ * how the serving path behaves when it blocks on I/O.</p>
+ */
+final class InMemoryRepositories {
+
+    private final Duration latency;
+
+    private final Map<List<String>, RemoteConfig> configs = new ConcurrentHashMap<>();
+
+    private final Map<List<String>, RemoteConfig> latest = new ConcurrentHashMap<>();
+
+    InMemoryRepositories() {
+        this(Duration.ZERO);
+    }
+
+    /**
+     * @param latency how long every read blocks the calling thread before returning.
+     */
+    InMemoryRepositories(Duration latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Stores a configuration, as if it had been saved.
+     */
+    void put(RemoteConfig config) {
+        configs.put(List.of(config.getAppId(), config.getEnv(), config.getVersion()), config);
+        latest.merge(List.of(config.getAppId(), config.getEnv()), config,
+            (current, candidate) -> candidate.getCreationDate().isBefore(current.getCreationDate())
+                ? current : candidate);
+    }
+
+    /**
+     * Wires a {@link RemoteConfigService} reading from this store, as the application does.
+     *
+     * <p>The local copy and the revision history are disabled, so the serving path runs as it does when they are
+     * turned off and never reaches the database-only writes they would make.</p>
+     *
+     * @param properties the settings to apply, updated in place.
+     * @return the service.
+     */
+    RemoteConfigService remoteConfigService(BlendBerryProperties properties) {
+        properties.getLocalStore().setEnabled(false);
+        properties.getHistory().setEnabled(false);
+        RemoteConfigRepository configRepository = configRepository();
+        RemoteConfigCache cache = new RemoteConfigCache(properties);
+        RemoteConfigMetrics metrics = new RemoteConfigMetrics(new SimpleMeterRegistry(), properties);
+        SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+        ConfigRevisionService revisions = new ConfigRevisionService(unsupported(ConfigRevisionRepository.class), null,
+            JsonMapper.builder().findAndAddModules().build(), scheduler, metrics, properties);
+        return new RemoteConfigService(
+            configRepository,
+            cache,
+            new LatestConfigPointerService(pointerRepository(), configRepository, null, scheduler, properties),
+            event -> {},
+            metrics,
+            new LocalConfigStore(configRepository, scheduler, new MongoReachability(), properties),
+            revisions,
+            new ConfigLayerService(configRepository, cache, revisions, event -> {}, properties));
+    }
+
+    /**
+     * @return a {@link RemoteConfigRepository} reading from this store.
+     */
+    RemoteConfigRepository configRepository() {
+        return (RemoteConfigRepository) Proxy.newProxyInstance(
+            RemoteConfigRepository.class.getClassLoader(),
+            new Class<?>[] {RemoteConfigRepository.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "findByAppIdAndEnvAndVersion" -> find(args);
+                case "findFreshnessByAppIdAndEnvAndVersion" -> find(args)
+                    .map(config -> new ConfigFreshness(
+                        config.getAppId(), config.getEnv(), config.getVersion(), config.getLastModDate()));
+                case "findTopByAppIdAndEnvOrderByCreationDateDesc" -> findLatest((String) args[0], (String) args[1]);
+                case "existsByAppIdAndEnvAndVersion" -> find(args).isPresent();
+                case "toString" -> "InMemoryRemoteConfigRepository";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    /**
+     * @return a {@link LatestConfigPointerRepository} deriving pointers from this store.
+     */
+    LatestConfigPointerRepository pointerRepository() {
+        return (LatestConfigPointerRepository) Proxy.newProxyInstance(
+            LatestConfigPointerRepository.class.getClassLoader(),
+            new Class<?>[] {LatestConfigPointerRepository.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "findByAppIdAndEnv" -> findLatest((String) args[0], (String) args[1])
+                    .map(config -> new LatestConfigPointer(
+                        null, config.getAppId(), config.getEnv(), config.getVersion(), config.getCreationDate()));
+                case "toString" -> "InMemoryLatestConfigPointerRepository";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    /**
+     * Builds a repository none of whose methods are expected to be called.
+     */
+    private static <T> T unsupported(Class<T> repository) {
+        return repository.cast(Proxy.newProxyInstance(
+            repository.getClassLoader(),
+            new Class<?>[] {repository},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "toString" -> "Unsupported" + repository.getSimpleName();
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            }));
+    }
+
+    private Optional<RemoteConfig> find(Object[] args) {
+        block();
+        return Optional.ofNullable(configs.get(List.of((String) args[0], (String) args[1], (String) args[2])));
+    }
+
+    private Optional<RemoteConfig> findLatest(String appId, String env) {
+        block();
+        return Optional.ofNullable(latest.get(List.of(appId, env)));
+    }
+
+    private void block() {
+        if (latency.isZero())
+            return;
+        try {
+            Thread.sleep(latency.toMillis(), latency.toNanosPart() % 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package dev.yapm.blendberry.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link Instant#parse} and comparison done on every lookup request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LookupDateParsingBenchmark {
+
+    @Param({"2025-01-01T00:00:00Z", "2025-01-01T00:00:00.123Z", "2025-01-01T00:00:00.123456789Z"})
+    public String lastModDate;
+
+    private Instant storedModDate;
+
+    @Setup
+    public void setUp() {
+        storedModDate = Instant.parse("2025-01-01T00:00:00.123Z");
+    }
+
+    @Benchmark
+    public Instant parse() {
+        return Instant.parse(lastModDate);
+    }
+
+    @Benchmark
+    public boolean parseAndCompare() {
+        return storedModDate.equals(Instant.parse(lastModDate));
+    }
+}
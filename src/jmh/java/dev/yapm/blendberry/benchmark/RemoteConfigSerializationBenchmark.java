@@ -0,0 +1,75 @@
+package dev.yapm.blendberry.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yapm.blendberry.cache.ConfigSnapshot;
+import dev.yapm.blendberry.cache.ConfigSnapshotCache;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Jackson serialization of {@link RemoteConfig} documents of increasing size, compared with serving
+ * a pre-serialized {@link ConfigSnapshot}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RemoteConfigSerializationBenchmark {
+
+    @Param({"small", "medium", "huge"})
+    public String size;
+
+    private ObjectMapper objectMapper;
+
+    private ConfigSnapshotCache snapshots;
+
+    private RemoteConfig config;
+
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        // Same configuration as the ObjectMapper auto-configured by Spring Boot.
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        BlendBerryProperties properties = new BlendBerryProperties();
+        properties.getSnapshot().setMaximumEntryBytes(DataSize.ofMegabytes(64));
+        snapshots = new ConfigSnapshotCache(objectMapper, properties);
+        config = ConfigFixtures.config("bench-app", "production", "1.0.0", ConfigFixtures.keys(size));
+        json = objectMapper.writeValueAsBytes(config);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(config);
+    }
+
+    @Benchmark
+    public RemoteConfig deserialize() throws IOException {
+        return objectMapper.readValue(json, RemoteConfig.class);
+    }
+
+    @Benchmark
+    public Optional<ConfigSnapshot> snapshotHit() {
+        return snapshots.get(config);
+    }
+}
@@ -0,0 +1,95 @@
+package dev.yapm.blendberry.benchmark;
+
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.service.RemoteConfigService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RemoteConfigService#findOne} and {@link RemoteConfigService#lookup} against in-memory repositories,
+ * with the configuration cache enabled and disabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RemoteConfigServiceBenchmark {
+
+    private static final String APP_ID = "bench-app";
+
+    private static final String ENV = "production";
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    @Param({"1000"})
+    public int versions;
+
+    private RemoteConfigService service;
+
+    private String[] versionNames;
+
+    private String clientModDate;
+
+    @Setup
+    public void setUp() {
+        InMemoryRepositories repositories = new InMemoryRepositories();
+        versionNames = new String[versions];
+        for (int i = 0; i < versions; i++) {
+            versionNames[i] = "1.0." + i;
+            RemoteConfig config = ConfigFixtures.config(APP_ID, ENV, versionNames[i], 10);
+            config.setCreationDate(config.getCreationDate().plusSeconds(i));
+            repositories.put(config);
+        }
+        clientModDate = ConfigFixtures.config(APP_ID, ENV, "", 0).getLastModDate().toString();
+
+        BlendBerryProperties properties = new BlendBerryProperties();
+        if (!cached)
+            properties.getCache().setMaximumSize(0);
+        service = repositories.remoteConfigService(properties);
+    }
+
+    @Benchmark
+    public Optional<RemoteConfig> findOneVersion(Cursor cursor) {
+        return service.findOne(APP_ID, ENV, versionNames[cursor.next(versions)]);
+    }
+
+    @Benchmark
+    public Optional<RemoteConfig> findOneLatest() {
+        return service.findOne(APP_ID, ENV, "latest");
+    }
+
+    @Benchmark
+    public Integer lookup(Cursor cursor) {
+        return service.lookup(APP_ID, ENV, versionNames[cursor.next(versions)], clientModDate);
+    }
+
+    /**
+     * Per-thread round-robin over the stored versions.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int position;
+
+        int next(int bound) {
+            position = position + 1 == bound ? 0 : position + 1;
+            return position;
+        }
+    }
+}
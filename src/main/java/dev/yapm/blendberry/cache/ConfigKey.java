@@ -0,0 +1,23 @@
+package dev.yapm.blendberry.cache;
+
+import dev.yapm.blendberry.entity.RemoteConfig;
+
+/**
+ * Identifies a single remote configuration by its app ID, environment, and version.
+ *
+ * @param appId   the application identifier.
+ * @param env     the environment name.
+ * @param version the configuration version.
+ */
+public record ConfigKey(String appId, String env, String version) {
+
+    /**
+     * Builds the key of an existing configuration.
+     *
+     * @param config the configuration to identify.
+     * @return the matching {@link ConfigKey}.
+     */
+    public static ConfigKey of(RemoteConfig config) {
+        return new ConfigKey(config.getAppId(), config.getEnv(), config.getVersion());
+    }
+}
@@ -0,0 +1,179 @@
+package dev.yapm.blendberry.cache;
+
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.exception.InvalidConfigSelectionException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Subset of the {@code configs} map a client asked for.
+ *
+ * <p>Each selector is either a top-level key ({@code flags}) or a JSON pointer to a nested key
+ * ({@code /flags/darkMode}). Selectors are normalized into sorted, non-overlapping pointers, so the same subset always
+ * yields the same selection, whatever the order or redundancy of the request.</p>
+ *
+ * <p>A selection is applied with the semantics of a MongoDB inclusion projection, so a subset projected by the
+ * database and one projected in memory from a cached full config are identical.</p>
+ *
+ * @param pointers the normalized JSON pointers, empty to select the whole map.
+ */
+public record ConfigSelection(List<String> pointers) {
+
+    /**
+     * Selection of the whole {@code configs} map.
+     */
+    public static final ConfigSelection ALL = new ConfigSelection(List.of());
+
+    /**
+     * Parses the selectors of a request.
+     *
+     * @param selectors the top-level keys and JSON pointers, possibly {@code null} or empty.
+     * @return the normalized selection, {@link #ALL} if no selector is given.
+     * @throws InvalidConfigSelectionException if a selector cannot be translated into a projection.
+     */
+    public static ConfigSelection parse(List<String> selectors) {
+        if (selectors == null || selectors.isEmpty())
+            return ALL;
+        Node root = new Node();
+        for (String selector : selectors)
+            root.add(segmentsOf(selector));
+        List<String> pointers = new ArrayList<>();
+        root.collect("", pointers);
+        return new ConfigSelection(List.copyOf(pointers));
+    }
+
+    /**
+     * @return {@code true} if the whole {@code configs} map is selected.
+     */
+    public boolean isAll() {
+        return pointers.isEmpty();
+    }
+
+    /**
+     * @return the dotted document paths to include in a database projection, one per pointer.
+     */
+    public List<String> fieldPaths() {
+        List<String> paths = new ArrayList<>(pointers.size());
+        for (String pointer : pointers)
+            paths.add("configs." + String.join(".", segmentsOf(pointer)));
+        return paths;
+    }
+
+    /**
+     * Projects a full configuration in memory.
+     *
+     * @param config the full configuration.
+     * @return a copy of the configuration holding only the selected keys, or {@code config} itself if everything is
+     * selected.
+     */
+    public RemoteConfig applyTo(RemoteConfig config) {
+        if (isAll())
+            return config;
+        RemoteConfig selected = new RemoteConfig();
+        selected.setId(config.getId());
+        selected.setAppId(config.getAppId());
+        selected.setEnv(config.getEnv());
+        selected.setVersion(config.getVersion());
+        selected.setParent(config.getParent());
+        selected.setCreationDate(config.getCreationDate());
+        selected.setLastModDate(config.getLastModDate());
+        selected.setRevision(config.getRevision());
+        if (config.getConfigs() != null) {
+            Node root = new Node();
+            for (String pointer : pointers)
+                root.add(segmentsOf(pointer));
+            @SuppressWarnings("unchecked")
+            Map<String, Object> configs = (Map<String, Object>) root.project(config.getConfigs());
+            selected.setConfigs(configs);
+        }
+        return selected;
+    }
+
+    @Override
+    public String toString() {
+        return isAll() ? "*" : String.join(",", pointers);
+    }
+
+    private static List<String> segmentsOf(String selector) {
+        if (selector == null || selector.isBlank())
+            throw new InvalidConfigSelectionException(selector, "empty selector");
+        List<String> segments = new ArrayList<>();
+        if (selector.startsWith("/")) {
+            for (String token : selector.substring(1).split("/", -1))
+                segments.add(token.replace("~1", "/").replace("~0", "~"));
+        } else {
+            segments.add(selector);
+        }
+        for (String segment : segments) {
+            if (segment.isEmpty())
+                throw new InvalidConfigSelectionException(selector, "empty key");
+            if (segment.indexOf('.') >= 0 || segment.startsWith("$") || segment.indexOf('\u0000') >= 0)
+                throw new InvalidConfigSelectionException(selector, "keys cannot contain '.' or start with '$'");
+        }
+        return segments;
+    }
+
+    /**
+     * Prefix tree of the selected paths, where a leaf selects its whole subtree.
+     */
+    private static final class Node {
+
+        private final Map<String, Node> children = new TreeMap<>();
+
+        private boolean leaf;
+
+        void add(List<String> segments) {
+            Node node = this;
+            for (String segment : segments) {
+                if (node.leaf)
+                    return;
+                node = node.children.computeIfAbsent(segment, ignored -> new Node());
+            }
+            node.leaf = true;
+            node.children.clear();
+        }
+
+        void collect(String prefix, List<String> pointers) {
+            if (leaf) {
+                pointers.add(prefix);
+                return;
+            }
+            for (Map.Entry<String, Node> child : children.entrySet())
+                child.getValue().collect(prefix + '/' + child.getKey().replace("~", "~0").replace("/", "~1"), pointers);
+        }
+
+        /**
+         * Mirrors an inclusion projection: missing keys are skipped, arrays are projected element-wise and scalars
+         * found where a subdocument is expected are dropped.
+         */
+        Object project(Object value) {
+            if (leaf)
+                return value;
+            if (value instanceof Map<?, ?> map) {
+                Map<String, Object> projected = new LinkedHashMap<>();
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    Node child = children.get(String.valueOf(entry.getKey()));
+                    if (child == null)
+                        continue;
+                    Object childValue = child.project(entry.getValue());
+                    if (childValue != null || child.leaf)
+                        projected.put(String.valueOf(entry.getKey()), childValue);
+                }
+                return projected;
+            }
+            if (value instanceof List<?> list) {
+                List<Object> projected = new ArrayList<>(list.size());
+                for (Object element : list) {
+                    if (element instanceof Map<?, ?> || element instanceof List<?>)
+                        projected.add(project(element));
+                }
+                return projected;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package dev.yapm.blendberry.cache;
+
+/**
+ * Pre-serialized representation of a remote configuration, ready to be written to a response as is.
+ *
+ * @param json the JSON body.
+ * @param gzip the same body, gzip-compressed.
+ */
+public record ConfigSnapshot(byte[] json, byte[] gzip) {
+
+    /**
+     * @return the number of bytes held by this snapshot.
+     */
+    public int weight() {
+        return json.length + gzip.length;
+    }
+}
@@ -0,0 +1,100 @@
+package dev.yapm.blendberry.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the serialized and compressed bodies of served configurations, so each content version is serialized and
+ * gzipped once instead of on every request.
+ *
+ * <p>Snapshots are keyed by config identity, {@code lastModDate}, revision and {@link ConfigSelection}, so a modified
+ * config never matches a previous snapshot and every subset of keys has its own. Outdated snapshots are evicted by
+ * the total byte budget.</p>
+ */
+@Slf4j
+@Component
+public class ConfigSnapshotCache {
+
+    private final Cache<SnapshotKey, ConfigSnapshot> snapshots;
+
+    private final ObjectWriter writer;
+
+    private final int maximumEntryBytes;
+
+    @Autowired
+    public ConfigSnapshotCache(ObjectMapper objectMapper, BlendBerryProperties properties) {
+        BlendBerryProperties.Snapshot settings = properties.getSnapshot();
+        this.snapshots = Caffeine.newBuilder()
+            .maximumWeight(settings.getMaximumBytes().toBytes())
+            .weigher((SnapshotKey key, ConfigSnapshot snapshot) -> snapshot.weight())
+            .build();
+        this.writer = objectMapper.writerFor(RemoteConfig.class);
+        this.maximumEntryBytes = (int) settings.getMaximumEntryBytes().toBytes();
+    }
+
+    /**
+     * Returns the snapshot of a configuration, building it if needed.
+     *
+     * @param config the configuration to serve.
+     * @return an {@link Optional} containing the snapshot, empty if the configuration cannot be snapshotted and must
+     * be serialized normally.
+     */
+    public Optional<ConfigSnapshot> get(RemoteConfig config) {
+        return get(config, ConfigSelection.ALL);
+    }
+
+    /**
+     * Returns the snapshot of a subset of a configuration, building it if needed.
+     *
+     * @param config    the configuration to serve, already projected to the selection.
+     * @param selection the selection the configuration was projected to.
+     * @return an {@link Optional} containing the snapshot, empty if the configuration cannot be snapshotted and must
+     * be serialized normally.
+     */
+    public Optional<ConfigSnapshot> get(RemoteConfig config, ConfigSelection selection) {
+        SnapshotKey key = new SnapshotKey(
+            ConfigKey.of(config), config.getLastModDate(), config.getRevision(), selection);
+        ConfigSnapshot snapshot = snapshots.getIfPresent(key);
+        if (snapshot != null)
+            return Optional.of(snapshot);
+
+        try {
+            byte[] json = writer.writeValueAsBytes(config);
+            if (json.length > maximumEntryBytes)
+                return Optional.empty();
+            snapshot = new ConfigSnapshot(json, gzip(json));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not snapshot config {}", key.configKey(), e);
+            return Optional.empty();
+        }
+        snapshots.put(key, snapshot);
+        return Optional.of(snapshot);
+    }
+
+    private static byte[] gzip(byte[] source) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, source.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(source);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private record SnapshotKey(ConfigKey configKey, Instant lastModDate, Long revision, ConfigSelection selection) {}
+}
@@ -0,0 +1,321 @@
+package dev.yapm.blendberry.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded in-process cache placed in front of the configuration repository.
+ *
+ * <p>Configurations are stored by {@link ConfigKey}. The {@code "latest"} version of every app/env pair is kept
+ * as a separate pointer entry holding the resolved version, so both explicit and latest reads can be answered
+ * without touching the database. Entries expire after the configured TTL and are evicted explicitly on writes.</p>
+ *
+ * <p>Subsets of a configuration requested through a {@link ConfigSelection} are cached separately, per selection,
+ * and evicted together with their configuration.</p>
+ *
+ * <p>Lookups only need the modification date of a configuration, which is cached on its own when the configuration
+ * itself is not, so freshness checks are answered from memory too.</p>
+ *
+ * <p>Keys known not to exist are remembered for a short negative TTL, so clients polling for deleted or unknown
+ * configurations do not reach the database on every request.</p>
+ *
+ * <p>A load must not put back a value read before a write that evicted it. Every eviction bumps a write generation,
+ * which loads capture with {@link #stamp} before reading the database and pass back when caching the result; values
+ * whose generation moved in between are dropped. Generations are striped over a fixed array, so two keys may share
+ * one, which at worst drops a value that was still current.</p>
+ */
+@Component
+public class RemoteConfigCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final Cache<ConfigKey, RemoteConfig> configs;
+
+    private final Cache<LatestKey, String> latestVersions;
+
+    private final Cache<SelectionKey, RemoteConfig> selections;
+
+    private final Cache<ConfigKey, Instant> lastModDates;
+
+    private final Cache<Object, Boolean> missing;
+
+    @Autowired
+    public RemoteConfigCache(BlendBerryProperties properties) {
+        BlendBerryProperties.Cache settings = properties.getCache();
+        this.configs = Caffeine.newBuilder()
+            .maximumSize(settings.getMaximumSize())
+            .expireAfterWrite(settings.getTtl())
+            .build();
+        this.latestVersions = Caffeine.newBuilder()
+            .maximumSize(settings.getMaximumSize())
+            .expireAfterWrite(settings.getTtl())
+            .build();
+        this.selections = Caffeine.newBuilder()
+            .maximumSize(settings.getMaximumSize())
+            .expireAfterWrite(settings.getTtl())
+            .build();
+        this.lastModDates = Caffeine.newBuilder()
+            .maximumSize(settings.getMaximumSize())
+            .expireAfterWrite(settings.getTtl())
+            .build();
+        this.missing = Caffeine.newBuilder()
+            .maximumSize(settings.getMaximumSize())
+            .expireAfterWrite(settings.getNegativeTtl())
+            .build();
+    }
+
+    /**
+     * Returns the cached configuration for the given key.
+     *
+     * @param key the configuration key.
+     * @return an {@link Optional} containing the config if it is cached.
+     */
+    public Optional<RemoteConfig> get(ConfigKey key) {
+        return Optional.ofNullable(configs.getIfPresent(key));
+    }
+
+    /**
+     * Returns the cached latest configuration of an environment, following its pointer entry.
+     *
+     * @param appId the application identifier.
+     * @param env   the environment.
+     * @return an {@link Optional} containing the latest config if both the pointer and the config are cached.
+     */
+    public Optional<RemoteConfig> getLatest(String appId, String env) {
+        return getLatestVersion(appId, env).flatMap(version -> get(new ConfigKey(appId, env, version)));
+    }
+
+    /**
+     * Returns the cached latest version of an environment.
+     *
+     * @param appId the application identifier.
+     * @param env   the environment.
+     * @return an {@link Optional} containing the version if the pointer entry is cached.
+     */
+    public Optional<String> getLatestVersion(String appId, String env) {
+        return Optional.ofNullable(latestVersions.getIfPresent(new LatestKey(appId, env)));
+    }
+
+    /**
+     * Returns a cached subset of a configuration.
+     *
+     * @param key       the configuration key.
+     * @param selection the selected keys.
+     * @return an {@link Optional} containing the projected config if it is cached.
+     */
+    public Optional<RemoteConfig> getSelected(ConfigKey key, ConfigSelection selection) {
+        return Optional.ofNullable(selections.getIfPresent(new SelectionKey(key, selection)));
+    }
+
+    /**
+     * Returns the modification date of a configuration, from the cached configuration or its freshness entry.
+     *
+     * @param key the configuration key.
+     * @return an {@link Optional} containing the date if either is cached.
+     */
+    public Optional<Instant> getLastModDate(ConfigKey key) {
+        RemoteConfig config = configs.getIfPresent(key);
+        if (config != null)
+            return Optional.of(config.getLastModDate());
+        return Optional.ofNullable(lastModDates.getIfPresent(key));
+    }
+
+    /**
+     * Returns the write generation of a configuration, to capture before loading it from the database.
+     *
+     * @param key the configuration key.
+     * @return the generation to pass back when caching what was loaded.
+     */
+    public long stamp(ConfigKey key) {
+        return generations.get(stripeOf(key));
+    }
+
+    /**
+     * Returns the write generation of the latest configuration of an environment, to capture before resolving it.
+     *
+     * <p>It moves on every eviction within the environment, so it also guards the configuration it resolves to.</p>
+     *
+     * @param appId the application identifier.
+     * @param env   the environment.
+     * @return the generation to pass back when caching what was loaded.
+     */
+    public long latestStamp(String appId, String env) {
+        return generations.get(stripeOf(new LatestKey(appId, env)));
+    }
+
+    /**
+     * Stores a configuration loaded from the database, unless it was evicted since the load started.
+     *
+     * @param config the configuration to cache.
+     * @param stamp  the generation captured by {@link #stamp} before the load.
+     */
+    public void put(RemoteConfig config, long stamp) {
+        ConfigKey key = ConfigKey.of(config);
+        putIfCurrent(configs, key, config, key, stamp);
+    }
+
+    /**
+     * Stores a configuration and marks it as the latest one of its environment, unless the environment changed since
+     * the load started.
+     *
+     * @param config the latest configuration of its app/env pair.
+     * @param stamp  the generation captured by {@link #latestStamp} before the load.
+     */
+    public void putLatest(RemoteConfig config, long stamp) {
+        LatestKey latest = new LatestKey(config.getAppId(), config.getEnv());
+        putIfCurrent(configs, ConfigKey.of(config), config, latest, stamp);
+        putIfCurrent(latestVersions, latest, config.getVersion(), latest, stamp);
+    }
+
+    /**
+     * Stores the latest version of an environment without its configuration, unless the environment changed since
+     * it was resolved.
+     *
+     * @param appId   the application identifier.
+     * @param env     the environment.
+     * @param version the latest version.
+     * @param stamp   the generation captured by {@link #latestStamp} before the resolution.
+     */
+    public void putLatestVersion(String appId, String env, String version, long stamp) {
+        LatestKey latest = new LatestKey(appId, env);
+        putIfCurrent(latestVersions, latest, version, latest, stamp);
+    }
+
+    /**
+     * Stores a subset of a configuration projected by the database, unless it was evicted since the load started.
+     *
+     * @param selection the selected keys.
+     * @param config    the projected configuration.
+     * @param stamp     the generation captured by {@link #stamp} before the load.
+     */
+    public void putSelected(ConfigSelection selection, RemoteConfig config, long stamp) {
+        ConfigKey key = ConfigKey.of(config);
+        putIfCurrent(selections, new SelectionKey(key, selection), config, key, stamp);
+    }
+
+    /**
+     * Stores the modification date of a configuration read from the database, unless it was evicted since the read
+     * started.
+     *
+     * @param key         the configuration key.
+     * @param lastModDate the modification date.
+     * @param stamp       the generation captured by {@link #stamp} before the read.
+     */
+    public void putLastModDate(ConfigKey key, Instant lastModDate, long stamp) {
+        putIfCurrent(lastModDates, key, lastModDate, key, stamp);
+    }
+
+    /**
+     * Tells whether a configuration was recently found not to exist.
+     *
+     * @param key the configuration key.
+     * @return {@code true} if the key is negatively cached.
+     */
+    public boolean isMissing(ConfigKey key) {
+        return missing.getIfPresent(key) != null;
+    }
+
+    /**
+     * Tells whether an environment was recently found to have no configuration at all.
+     *
+     * @param appId the application identifier.
+     * @param env   the environment.
+     * @return {@code true} if the latest pointer is negatively cached.
+     */
+    public boolean isLatestMissing(String appId, String env) {
+        return missing.getIfPresent(new LatestKey(appId, env)) != null;
+    }
+
+    /**
+     * Remembers that a configuration does not exist, unless it was written since the load started.
+     *
+     * @param key   the configuration key.
+     * @param stamp the generation captured by {@link #stamp} before the load.
+     */
+    public void putMissing(ConfigKey key, long stamp) {
+        putIfCurrent(missing, key, Boolean.TRUE, key, stamp);
+    }
+
+    /**
+     * Remembers that an environment has no configuration, unless one was written since the load started.
+     *
+     * @param appId the application identifier.
+     * @param env   the environment.
+     * @param stamp the generation captured by {@link #latestStamp} before the load.
+     */
+    public void putLatestMissing(String appId, String env, long stamp) {
+        LatestKey latest = new LatestKey(appId, env);
+        putIfCurrent(missing, latest, Boolean.TRUE, latest, stamp);
+    }
+
+    /**
+     * Evicts a single configuration, including its negative entry and cached subsets.
+     *
+     * <p>Subsets are found by scanning the selection cache, which is acceptable as writes are rare compared to
+     * reads.</p>
+     *
+     * @param key the configuration key.
+     */
+    public void invalidate(ConfigKey key) {
+        // Generations move before the entries go, so a load finishing in between cannot put its value back.
+        generations.incrementAndGet(stripeOf(key));
+        generations.incrementAndGet(stripeOf(new LatestKey(key.appId(), key.env())));
+        configs.invalidate(key);
+        lastModDates.invalidate(key);
+        missing.invalidate(key);
+        selections.asMap().keySet().removeIf(selected -> selected.configKey().equals(key));
+    }
+
+    /**
+     * Evicts the latest pointer of an environment, including its negative entry.
+     *
+     * @param appId the application identifier.
+     * @param env   the environment.
+     */
+    public void invalidateLatest(String appId, String env) {
+        LatestKey key = new LatestKey(appId, env);
+        generations.incrementAndGet(stripeOf(key));
+        latestVersions.invalidate(key);
+        missing.invalidate(key);
+    }
+
+    /**
+     * Evicts every cached entry.
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++)
+            generations.incrementAndGet(i);
+        configs.invalidateAll();
+        latestVersions.invalidateAll();
+        selections.invalidateAll();
+        lastModDates.invalidateAll();
+        missing.invalidateAll();
+    }
+
+    /**
+     * Caches a value only if the generation guarding it did not move. The check runs under the entry lock, so an
+     * eviction either happens before it and is seen, or after it and removes the value.
+     */
+    private <K, V> void putIfCurrent(Cache<K, V> cache, K key, V value, Object guard, long stamp) {
+        cache.asMap().compute(key, (ignored, current) -> generations.get(stripeOf(guard)) == stamp ? value : current);
+    }
+
+    private static int stripeOf(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private record LatestKey(String appId, String env) {}
+
+    private record SelectionKey(ConfigKey configKey, ConfigSelection selection) {}
+}
@@ -0,0 +1,70 @@
+package dev.yapm.blendberry.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * De-duplicates concurrent loads of the same key.
+ *
+ * <p>The first caller for a key runs the load, and callers arriving while it is in flight wait for it and share its
+ * result or exception instead of running their own. Once the load completes the key is released, so later callers
+ * load again (typically hitting the cache filled by the previous load).</p>
+ *
+ * @param <K> the key type.
+ * @param <V> the loaded value type.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Runnable onCoalesced;
+
+    /**
+     * @param onCoalesced called every time a caller joins a load already in flight.
+     */
+    public SingleFlight(Runnable onCoalesced) {
+        this.onCoalesced = onCoalesced;
+    }
+
+    /**
+     * Runs the load for a key, or joins the one already in flight.
+     *
+     * @param key    the key to load.
+     * @param loader the load to run if none is in flight.
+     * @return the loaded value.
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            onCoalesced.run();
+            return join(existing);
+        }
+
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            if (e.getCause() instanceof Error cause)
+                throw cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package dev.yapm.blendberry.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Externalized settings for the BlendBerry API, bound from the {@code blendberry.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "blendberry")
+public class BlendBerryProperties {
+
+    /**
+     * Settings of the in-process configuration cache.
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * Settings of the pre-serialized response snapshots.
+     */
+    private Snapshot snapshot = new Snapshot();
+
+    /**
+     * Settings of the long-poll and SSE watch endpoints.
+     */
+    private Watch watch = new Watch();
+
+    /**
+     * Settings of the data migrations run at startup.
+     */
+    private Migration migration = new Migration();
+
+    /**
+     * Settings of the bulk NDJSON import and export.
+     */
+    private Transfer transfer = new Transfer();
+
+    /**
+     * Settings of the application metrics.
+     */
+    private Metrics metrics = new Metrics();
+
+    /**
+     * Settings of the cross-replica cache invalidation bus.
+     */
+    private Invalidation invalidation = new Invalidation();
+
+    /**
+     * Settings of the local on-disk copy of every configuration.
+     */
+    private LocalStore localStore = new LocalStore();
+
+    /**
+     * Settings of the configuration revision history.
+     */
+    private History history = new History();
+
+    /**
+     * Settings of the configurations layered on a parent.
+     */
+    private Layering layering = new Layering();
+
+    /**
+     * Settings of the MongoDB driver connection pool.
+     */
+    private MongoPool mongoPool = new MongoPool();
+
+    /**
+     * Timeouts of the MongoDB driver.
+     */
+    private MongoTimeouts mongoTimeouts = new MongoTimeouts();
+
+    @Data
+    public static class Cache {
+
+        /**
+         * Maximum number of configurations kept in memory.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * Time after which a cached configuration is reloaded from the database.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * Time during which a configuration known not to exist is answered as missing without a database query.
+         */
+        private Duration negativeTtl = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Snapshot {
+
+        /**
+         * Total size of the JSON and gzip bodies kept in memory.
+         */
+        private DataSize maximumBytes = DataSize.ofMegabytes(64);
+
+        /**
+         * Configurations serializing to more than this are not snapshotted and are serialized on every request.
+         */
+        private DataSize maximumEntryBytes = DataSize.ofMegabytes(1);
+    }
+
+    @Data
+    public static class Watch {
+
+        /**
+         * How long a long-poll request is held when the client does not ask for a timeout.
+         */
+        private Duration defaultTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Upper bound for client-requested timeouts of long-poll and SSE watches.
+         */
+        private Duration maxTimeout = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Migration {
+
+        /**
+         * Whether the latest-version pointers are recomputed from the stored configurations at startup.
+         */
+        private boolean backfillLatestPointers = true;
+
+        /**
+         * Delay before retrying a startup migration that failed on the database.
+         */
+        private Duration retryInterval = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Transfer {
+
+        /**
+         * Number of imported configurations sent to the database in a single bulk write.
+         */
+        private int batchSize = 1_000;
+
+        /**
+         * Maximum number of rejected lines detailed in an import report, further ones are only counted.
+         */
+        private int maxReportedErrors = 100;
+    }
+
+    @Data
+    public static class Metrics {
+
+        /**
+         * Whether application metrics are tagged with the app ID. Disabled by default to bound cardinality.
+         */
+        private boolean tagAppId = false;
+
+        /**
+         * Maximum number of distinct tag values per application metric, further values are not recorded.
+         */
+        private int maximumTagValues = 100;
+    }
+
+    @Data
+    public static class Invalidation {
+
+        /**
+         * How replicas receive each other's invalidations.
+         */
+        private InvalidationMode mode = InvalidationMode.AUTO;
+
+        /**
+         * Name of the capped collection invalidations are written to.
+         */
+        private String collection = "invalidations";
+
+        /**
+         * Size of the capped collection, which only needs to hold the invalidations of a short outage.
+         */
+        private DataSize cappedSize = DataSize.ofMegabytes(16);
+
+        /**
+         * How long the listener waits for new invalidations before polling again.
+         */
+        private Duration maxAwaitTime = Duration.ofSeconds(1);
+
+        /**
+         * Delay before the listener reconnects after an error.
+         */
+        private Duration retryDelay = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class LocalStore {
+
+        /**
+         * Whether a local copy is kept to serve reads while the database is unreachable.
+         */
+        private boolean enabled = true;
+
+        /**
+         * File the local copy is written to.
+         */
+        private Path path = Path.of("data", "blendberry-configs.bin");
+
+        /**
+         * Delay between two incremental refreshes, which only read configurations modified since the last one.
+         */
+        private Duration refreshInterval = Duration.ofSeconds(30);
+
+        /**
+         * Interval of the full rebuilds, which also pick up changes missed by incremental refreshes.
+         */
+        private Duration fullRefreshInterval = Duration.ofHours(1);
+
+        /**
+         * How long reads go straight to the local copy once the database was found unreachable, before it is tried
+         * again.
+         */
+        private Duration outageRetryInterval = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class History {
+
+        /**
+         * Whether past revisions are kept to answer clients with merge patches instead of full documents.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of most recent revisions kept per configuration.
+         */
+        private int maxRevisions = 50;
+
+        /**
+         * Age after which revisions are compacted away, whatever their count.
+         */
+        private Duration maxAge = Duration.ofDays(30);
+
+        /**
+         * Delay between two compactions of the revisions older than the maximum age.
+         */
+        private Duration compactionInterval = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Layering {
+
+        /**
+         * Maximum number of ancestors a layered configuration may inherit from.
+         */
+        private int maxDepth = 8;
+    }
+
+    @Data
+    public static class MongoPool {
+
+        /**
+         * Maximum number of connections, in use or idle, per server, {@code null} to keep the value of the URI.
+         */
+        private Integer maxSize;
+
+        /**
+         * Number of connections kept open per server even when idle, {@code null} to keep the value of the URI.
+         */
+        private Integer minSize;
+
+        /**
+         * How long a request waits for a free connection before failing, {@code null} to keep the value of the URI.
+         */
+        private Duration maxWaitTime;
+
+        /**
+         * Maximum number of connections being established concurrently per server, {@code null} to keep the value
+         * of the URI.
+         */
+        private Integer maxConnecting;
+    }
+
+    @Data
+    public static class MongoTimeouts {
+
+        /**
+         * How long an operation waits for a reachable server, {@code null} to keep the value of the URI.
+         */
+        private Duration serverSelectionTimeout;
+
+        /**
+         * How long opening a connection may take, {@code null} to keep the value of the URI.
+         */
+        private Duration connectTimeout;
+
+        /**
+         * How long a read from a connection may take, {@code null} to keep the value of the URI.
+         */
+        private Duration socketTimeout;
+    }
+
+    public enum InvalidationMode {
+
+        /**
+         * Use a change stream when connected to a replica set, and tail the capped collection otherwise.
+         */
+        AUTO,
+
+        /**
+         * Watch the invalidations collection through a change stream. Requires a replica set.
+         */
+        CHANGE_STREAM,
+
+        /**
+         * Tail the capped invalidations collection. Works against a standalone mongod.
+         */
+        TAILABLE,
+
+        /**
+         * Do not exchange invalidations, for single-replica deployments.
+         */
+        NONE
+    }
+}
@@ -0,0 +1,25 @@
+package dev.yapm.blendberry.config;
+
+import dev.yapm.blendberry.metrics.RemoteConfigMetrics;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Bounds the cardinality of the client-provided tags of the application metrics.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterFilter envTagCardinalityFilter(BlendBerryProperties properties) {
+        return MeterFilter.maximumAllowableTags(RemoteConfigMetrics.PREFIX, "env",
+            properties.getMetrics().getMaximumTagValues(), MeterFilter.deny());
+    }
+
+    @Bean
+    public MeterFilter appIdTagCardinalityFilter(BlendBerryProperties properties) {
+        return MeterFilter.maximumAllowableTags(RemoteConfigMetrics.PREFIX, "appId",
+            properties.getMetrics().getMaximumTagValues(), MeterFilter.deny());
+    }
+}
@@ -0,0 +1,59 @@
+package dev.yapm.blendberry.config;
+
+import dev.yapm.blendberry.fallback.MongoReachability;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes the MongoDB driver connection pool from the {@code blendberry.mongo-pool.*} properties, so it can be tuned
+ * per profile alongside the request threading model, and bounds its timeouts from the
+ * {@code blendberry.mongo-timeouts.*} properties, so an outage is detected before clients give up.
+ *
+ * <p>Only the properties that are set are applied, and they take precedence over the matching options of the
+ * connection URI. The others keep the value of the URI, or the driver default.</p>
+ *
+ * <p>The driver also reports the state of the cluster to {@link MongoReachability}, so a saturated pool is not
+ * mistaken for an outage.</p>
+ */
+@Configuration
+public class MongoPoolConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(BlendBerryProperties properties) {
+        BlendBerryProperties.MongoPool pool = properties.getMongoPool();
+        return settings -> settings.applyToConnectionPoolSettings(builder -> {
+            if (pool.getMaxSize() != null)
+                builder.maxSize(pool.getMaxSize());
+            if (pool.getMinSize() != null)
+                builder.minSize(pool.getMinSize());
+            if (pool.getMaxWaitTime() != null)
+                builder.maxWaitTime(pool.getMaxWaitTime().toMillis(), TimeUnit.MILLISECONDS);
+            if (pool.getMaxConnecting() != null)
+                builder.maxConnecting(pool.getMaxConnecting());
+        });
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer reachabilityCustomizer(MongoReachability reachability) {
+        return settings -> settings.applyToClusterSettings(builder -> builder.addClusterListener(reachability));
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer timeoutCustomizer(BlendBerryProperties properties) {
+        BlendBerryProperties.MongoTimeouts timeouts = properties.getMongoTimeouts();
+        return settings -> {
+            if (timeouts.getServerSelectionTimeout() != null)
+                settings.applyToClusterSettings(builder -> builder.serverSelectionTimeout(
+                    timeouts.getServerSelectionTimeout().toMillis(), TimeUnit.MILLISECONDS));
+            if (timeouts.getConnectTimeout() != null)
+                settings.applyToSocketSettings(builder -> builder.connectTimeout(
+                    timeouts.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS));
+            if (timeouts.getSocketTimeout() != null)
+                settings.applyToSocketSettings(builder -> builder.readTimeout(
+                    timeouts.getSocketTimeout().toMillis(), TimeUnit.MILLISECONDS));
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package dev.yapm.blendberry.controller;
+
+/**
+ * Content-coding negotiation from an {@code Accept-Encoding} request header.
+ */
+final class AcceptEncoding {
+
+    private AcceptEncoding() {}
+
+    /**
+     * Tells whether a client accepts gzip-encoded responses.
+     *
+     * @param acceptEncoding the header value, possibly {@code null}.
+     * @return {@code true} if gzip is listed without a zero quality value.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip"))
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+        }
+        return false;
+    }
+}
@@ -0,0 +1,158 @@
+package dev.yapm.blendberry.controller;
+
+import dev.yapm.blendberry.cache.ConfigSelection;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import org.springframework.http.HttpHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Computes strong entity tags for {@link RemoteConfig} representations.
+ *
+ * <p>The tag is made of the config revision followed by a digest of the config identity and its {@code lastModDate},
+ * which both move on every content change. It is therefore stable across replicas and can be computed without
+ * serializing the {@code configs} map. The revision prefix lets {@code If-Match} preconditions be checked
+ * atomically by the database.</p>
+ *
+ * <p>This is as strong as a digest of the body because {@code configs} is only ever written by updates that also
+ * set {@code lastModDate} and increment {@code revision} in the same document operation, and a new config starts at
+ * revision 0 whatever the client sends. Two representations can only share a tag if a config is deleted and created
+ * again with the same {@code lastModDate} to the millisecond.</p>
+ *
+ * <p>Representations of a subset of the keys also digest their {@link ConfigSelection}, so each selection has its own
+ * tag while sharing the revision prefix of the full config.</p>
+ *
+ * <p>A gzip-encoded body is a different representation, so its tag carries a {@code -gz} suffix. Preconditions of
+ * reads accept both forms, since the content is the same either way. A merge patch is not the document at all, so
+ * its tag carries a {@code -patch-<base revision>} suffix and never matches the one of the document.</p>
+ */
+final class ConfigETag {
+
+    private static final String GZIP_SUFFIX = "-gz";
+
+    private ConfigETag() {}
+
+    /**
+     * Computes the entity tag of a configuration.
+     *
+     * @param config the configuration being served.
+     * @return the quoted strong entity tag.
+     */
+    static String of(RemoteConfig config) {
+        return of(config, ConfigSelection.ALL);
+    }
+
+    /**
+     * Computes the entity tag of a subset of a configuration.
+     *
+     * @param config    the configuration being served.
+     * @param selection the selected keys.
+     * @return the quoted strong entity tag.
+     */
+    static String of(RemoteConfig config, ConfigSelection selection) {
+        String source = config.getAppId() + '\u0000' + config.getEnv() + '\u0000' + config.getVersion() + '\u0000'
+            + config.getLastModDate().toEpochMilli();
+        if (!selection.isAll())
+            source += '\u0000' + selection.toString();
+        return "\"" + revisionOf(config) + '-' + HexFormat.of().formatHex(sha256(source), 0, 16) + '"';
+    }
+
+    /**
+     * Derives the entity tag of the gzip-encoded body of a representation.
+     *
+     * @param etag the quoted entity tag of the identity body.
+     * @return the quoted entity tag of the gzip-encoded body.
+     */
+    static String gzip(String etag) {
+        return etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + '"';
+    }
+
+    /**
+     * Derives the entity tag of the merge patch from a past revision to a representation.
+     *
+     * @param etag         the quoted entity tag of the representation.
+     * @param baseRevision the revision the patch applies to.
+     * @return the quoted entity tag of the patch.
+     */
+    static String patch(String etag, long baseRevision) {
+        return etag.substring(0, etag.length() - 1) + "-patch-" + baseRevision + '"';
+    }
+
+    /**
+     * Extracts the revision a client expects from an {@code If-Match} header.
+     *
+     * @param ifMatch the header value, possibly {@code null}.
+     * @return {@code null} if there is no precondition (absent header or {@code *}), the expected revision
+     * otherwise, or {@code -1} if the tag was not issued by this API and thus never matches.
+     */
+    static Long expectedRevision(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*"))
+            return null;
+        String tag = ifMatch.trim();
+        int separator = tag.indexOf('-');
+        if (!tag.startsWith("\"") || separator < 0)
+            return -1L;
+        try {
+            return Long.parseLong(tag.substring(1, separator));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Evaluates the {@code If-None-Match} and {@code If-Modified-Since} preconditions of a read, as RFC 9110 does:
+     * the latter is ignored when the former is present.
+     *
+     * <p>It runs before the body is fetched, so a client copy that is still current costs no serialization.</p>
+     *
+     * @param request      the request headers.
+     * @param etag         the entity tag of the representation that would be served.
+     * @param lastModified the modification date of the representation.
+     * @return {@code true} if a 304 response must be sent.
+     */
+    static boolean notModified(HttpHeaders request, String etag, Instant lastModified) {
+        try {
+            List<String> ifNoneMatch = request.getIfNoneMatch();
+            if (!ifNoneMatch.isEmpty()) {
+                for (String tag : ifNoneMatch) {
+                    if (tag.equals("*") || opaqueTag(tag).equals(opaqueTag(etag)))
+                        return true;
+                }
+                return false;
+            }
+            long ifModifiedSince = request.getIfModifiedSince();
+            return ifModifiedSince >= 0 && lastModified.toEpochMilli() / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            // Malformed preconditions are ignored, and the full representation is sent.
+            return false;
+        }
+    }
+
+    /**
+     * Strips the weakness indicator, as {@code If-None-Match} is evaluated with the weak comparison, and the content
+     * coding suffix, so a tag received with either encoding of a representation matches both.
+     */
+    private static String opaqueTag(String tag) {
+        String opaque = tag.startsWith("W/") ? tag.substring(2) : tag;
+        if (opaque.endsWith(GZIP_SUFFIX + '"'))
+            opaque = opaque.substring(0, opaque.length() - GZIP_SUFFIX.length() - 1) + '"';
+        return opaque;
+    }
+
+    private static long revisionOf(RemoteConfig config) {
+        return config.getRevision() == null ? 0 : config.getRevision();
+    }
+
+    private static byte[] sha256(String source) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
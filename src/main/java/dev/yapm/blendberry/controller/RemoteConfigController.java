@@ -1,11 +1,24 @@
 package dev.yapm.blendberry.controller;
 
+import dev.yapm.blendberry.cache.ConfigSelection;
+import dev.yapm.blendberry.cache.ConfigSnapshotCache;
+import dev.yapm.blendberry.dto.ImportReport;
+import dev.yapm.blendberry.dto.LookupRequest;
+import dev.yapm.blendberry.dto.LookupResult;
 import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.metrics.RemoteConfigMetrics;
+import dev.yapm.blendberry.service.ConfigRevisionService;
+import dev.yapm.blendberry.service.ConfigWatchService;
 import dev.yapm.blendberry.service.RemoteConfigService;
+import dev.yapm.blendberry.service.RemoteConfigTransferService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,7 +30,15 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -26,13 +47,41 @@ import java.util.Map;
  */
 @RestController
 @RequestMapping("/configs")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class RemoteConfigController {
 
+    /**
+     * Media type of RFC 7386 JSON merge patches.
+     */
+    static final MediaType MERGE_PATCH_JSON = MediaType.parseMediaType("application/merge-patch+json");
+
     public final RemoteConfigService remoteConfigService;
 
+    public final ConfigWatchService configWatchService;
+
+    public final RemoteConfigTransferService remoteConfigTransferService;
+
+    public final ConfigSnapshotCache configSnapshotCache;
+
+    public final RemoteConfigMetrics remoteConfigMetrics;
+
+    public final ConfigRevisionService configRevisionService;
+
     @Autowired
-    public RemoteConfigController(RemoteConfigService remoteConfigService) {
+    public RemoteConfigController(
+        RemoteConfigService remoteConfigService,
+        ConfigWatchService configWatchService,
+        RemoteConfigTransferService remoteConfigTransferService,
+        ConfigSnapshotCache configSnapshotCache,
+        RemoteConfigMetrics remoteConfigMetrics,
+        ConfigRevisionService configRevisionService
+    ) {
         this.remoteConfigService = remoteConfigService;
+        this.configWatchService = configWatchService;
+        this.remoteConfigTransferService = remoteConfigTransferService;
+        this.configSnapshotCache = configSnapshotCache;
+        this.remoteConfigMetrics = remoteConfigMetrics;
+        this.configRevisionService = configRevisionService;
     }
 
     /**
@@ -46,26 +95,145 @@ public class RemoteConfigController {
         return ResponseEntity.ok(remoteConfigService.save(config));
     }
 
+    /**
+     * Imports remote configurations from a newline-delimited JSON body (one config per line).
+     *
+     * <p>Configs are inserted, or replace the existing config with the same app ID, environment, and version.
+     * Invalid lines are reported in the response without failing the whole import.</p>
+     *
+     * @param body The NDJSON request body.
+     * @return An {@link ImportReport} with the insert/update counts and the per-line errors.
+     * @throws IOException If the request body cannot be read.
+     */
+    @PostMapping(value = "import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportReport> importConfigs(InputStream body) throws IOException {
+        return ResponseEntity.ok(remoteConfigTransferService.importFrom(body));
+    }
+
+    /**
+     * Exports remote configurations as newline-delimited JSON, streamed as they are read from the database.
+     *
+     * @param appId The optional application ID (from header) to restrict the export to.
+     * @return The NDJSON stream of configs.
+     */
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportConfigs(
+        @RequestHeader(value = "App-Id", required = false) String appId
+    ) {
+        StreamingResponseBody body = out -> remoteConfigTransferService.exportTo(appId, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+
     /**
      * Retrieves a specific configuration by app ID, environment, and version.
      *
-     * @param appId   The application identifier (from header).
-     * @param env     The environment name (e.g., dev, prod).
-     * @param version The specific version of the config to fetch or latest.
-     * @return The matching {@link RemoteConfig}, or 404 if not found.
+     * <p>The body is served from a pre-serialized snapshot, gzip-compressed when the client accepts it.</p>
+     *
+     * <p>Clients needing only part of the config can list the keys to return, as top-level keys or JSON pointers
+     * ({@code ?keys=flags,/limits/maxUploads}). Each selection has its own {@code ETag}.</p>
+     *
+     * @param appId          The application identifier (from header).
+     * @param env            The environment name (e.g., dev, prod).
+     * @param version        The specific version of the config to fetch or latest.
+     * @param keys           The optional keys or JSON pointers to restrict the {@code configs} map to.
+     * @param requestHeaders The request headers, for the accepted encodings and the preconditions.
+     * @return The matching {@link RemoteConfig} with {@code ETag} and {@code Last-Modified} headers, 304 if the
+     * client copy is still current according to {@code If-None-Match}/{@code If-Modified-Since}, or 404 if not found.
      */
     @GetMapping("{env}")
-    public ResponseEntity<RemoteConfig> getConfig(
+    public ResponseEntity<?> getConfig(
         @RequestHeader("App-Id") String appId,
         @PathVariable String env,
-        @RequestParam @NotBlank String version
+        @RequestParam @NotBlank String version,
+        @RequestParam(required = false) List<String> keys,
+        @RequestHeader HttpHeaders requestHeaders
     ) {
-        return remoteConfigService.findOne(appId, env, version)
-            .map(ResponseEntity::ok)
+        ConfigSelection selection = ConfigSelection.parse(keys);
+        return remoteConfigService.findOne(appId, env, version, selection)
+            .<ResponseEntity<?>>map(config -> fullResponse(config, selection, requestHeaders))
             .orElseGet( ()-> ResponseEntity.notFound()
                 .build());
     }
 
+    /**
+     * Retrieves the changes of a configuration since the client copy, identified by its version and its revision or
+     * modification date, as an RFC 7386 JSON merge patch.
+     *
+     * <p>The patch applies to the document served by {@link #getConfig}. If the client copy is of another version,
+     * or no longer in the revision history, the full document is sent instead, which clients tell apart by its
+     * content type. Clients following {@code latest} must send the version of their copy as {@code baseVersion},
+     * otherwise they always get the full document.</p>
+     *
+     * @param appId          The application identifier (from header).
+     * @param env            The environment name (e.g., dev, prod).
+     * @param version        The specific version of the config to fetch or latest.
+     * @param baseVersion    The version of the client copy, {@code version} if omitted.
+     * @param revision       The revision of the client copy.
+     * @param lastModDate    The last modification date of the client copy, used if no revision is given.
+     * @param requestHeaders The request headers, for the accepted encodings and the preconditions.
+     * @return A {@code application/merge-patch+json} patch, the full {@link RemoteConfig}, 304 if the client copy is
+     * current, or 404 if not found.
+     */
+    @GetMapping("{env}/delta")
+    public ResponseEntity<?> getConfigDelta(
+        @RequestHeader("App-Id") String appId,
+        @PathVariable String env,
+        @RequestParam @NotBlank String version,
+        @RequestParam(required = false) String baseVersion,
+        @RequestParam(required = false) Long revision,
+        @RequestParam(required = false) String lastModDate,
+        @RequestHeader HttpHeaders requestHeaders
+    ) {
+        // Without a base version, a copy of "latest" cannot be compared, and gets the full document.
+        String heldVersion = baseVersion == null ? version : baseVersion;
+        Instant baseModDate = lastModDate == null ? null : Instant.parse(lastModDate);
+        return remoteConfigService.findOne(appId, env, version)
+            .<ResponseEntity<?>>map(config -> {
+                if (configRevisionService.isCurrent(config, heldVersion, revision, baseModDate))
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ConfigETag.of(config)).build();
+                return configRevisionService.mergePatch(config, heldVersion, revision, baseModDate)
+                    .<ResponseEntity<?>>map(patch -> ResponseEntity.ok()
+                        .eTag(ConfigETag.patch(ConfigETag.of(config), patch.baseRevision()))
+                        .lastModified(config.getLastModDate())
+                        .contentType(MERGE_PATCH_JSON)
+                        .body(patch.patch()))
+                    .orElseGet(() -> fullResponse(config, ConfigSelection.ALL, requestHeaders));
+            })
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<?> fullResponse(RemoteConfig config, ConfigSelection selection, HttpHeaders requestHeaders) {
+        String identityTag = ConfigETag.of(config, selection);
+        boolean gzip = AcceptEncoding.acceptsGzip(requestHeaders.getFirst(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? ConfigETag.gzip(identityTag) : identityTag;
+        // Preconditions are checked before the snapshot is fetched, so a 304 never serializes nor counts as a payload.
+        if (ConfigETag.notModified(requestHeaders, etag, config.getLastModDate()))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .lastModified(config.getLastModDate())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(etag)
+            .lastModified(config.getLastModDate())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .contentType(MediaType.APPLICATION_JSON);
+        return configSnapshotCache.get(config, selection)
+            .<ResponseEntity<?>>map(snapshot -> {
+                if (gzip) {
+                    remoteConfigMetrics.recordPayloadSize(config.getAppId(), config.getEnv(), "gzip",
+                        snapshot.gzip().length);
+                    return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+                }
+                remoteConfigMetrics.recordPayloadSize(config.getAppId(), config.getEnv(), "identity",
+                    snapshot.json().length);
+                return response.body(snapshot.json());
+            })
+            .orElseGet(() -> response.eTag(identityTag).body(config));
+    }
+
     /**
      * Checks whether the configuration for a given app/env/version has been updated.
      *
@@ -85,28 +253,96 @@ public class RemoteConfigController {
         return ResponseEntity.ok(remoteConfigService.lookup(appId, env, version, lastModDate));
     }
 
+    /**
+     * Checks several configurations of the same app in one round trip.
+     *
+     * @param appId    The application ID (from header).
+     * @param requests The env/version/lastModDate tuples to check.
+     * @return One result per tuple, in request order, each holding {@code ConfigStatus.UP_TO_DATE},
+     * {@code ConfigStatus.NEEDS_TO_UPDATE} or {@code ConfigStatus.NOT_FOUND}.
+     */
+    @PostMapping("lookup/batch")
+    public ResponseEntity<List<LookupResult>> lookupBatch(
+        @RequestHeader("App-Id") String appId,
+        @Valid @RequestBody List<@Valid LookupRequest> requests
+    ) {
+        return ResponseEntity.ok(remoteConfigService.lookupAll(appId, requests));
+    }
+
+    /**
+     * Long-poll variant of {@link #lookup}: holds the request until the configuration changes.
+     *
+     * <p>Responds as soon as the stored {@code lastModDate} differs from the client's one, or with
+     * {@code ConfigStatus.UP_TO_DATE} once the timeout elapses. The request does not hold a server thread while
+     * it waits.</p>
+     *
+     * @param appId        The application ID (from header).
+     * @param env          The environment to watch.
+     * @param version      The configuration version.
+     * @param lastModDate  The client's last modification timestamp.
+     * @param timeout      Optional ISO-8601 wait duration (e.g., PT30S), capped by the server maximum.
+     * @return A deferred status integer.
+     */
+    @GetMapping("watch")
+    public DeferredResult<ResponseEntity<Integer>> watch(
+        @RequestHeader("App-Id") String appId,
+        @RequestParam @NotNull String env,
+        @RequestParam @NotNull String version,
+        @RequestParam @NotNull String lastModDate,
+        @RequestParam(required = false) Duration timeout
+    ) {
+        return configWatchService.watch(appId, env, version, lastModDate, timeout);
+    }
+
+    /**
+     * Server-Sent Events variant of {@link #watch}: streams a {@code status} event on every change.
+     *
+     * @param appId        The application ID (from header).
+     * @param env          The environment to watch.
+     * @param version      The configuration version.
+     * @param lastModDate  The client's last modification timestamp.
+     * @param timeout      Optional ISO-8601 stream duration (e.g., PT5M), capped by the server maximum.
+     * @return The event stream.
+     */
+    @GetMapping(value = "watch/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter watchStream(
+        @RequestHeader("App-Id") String appId,
+        @RequestParam @NotNull String env,
+        @RequestParam @NotNull String version,
+        @RequestParam @NotNull String lastModDate,
+        @RequestParam(required = false) Duration timeout
+    ) {
+        return configWatchService.stream(appId, env, version, lastModDate, timeout);
+    }
+
     /**
      * Updates the configuration map of an existing remote config.
      *
      * <p>This endpoint allows clients to update only the {@code configs} field of an
      * existing config. Requires {@code appId} in the header and {@code env} and {@code version}
-     * as path/query parameters.
+     * as path/query parameters. An optional {@code If-Match} header carrying an ETag previously returned by this
+     * API makes the update conditional on the config not having been modified since.
      *
      * @param appId      the application ID from the request header.
      * @param env        the environment of the configuration (as path variable).
      * @param version    the version of the configuration (as query param).
+     * @param ifMatch    the optional ETag precondition.
      * @param newConfigs the new configuration map provided in the request body.
-     * @return the updated {@link RemoteConfig}.
+     * @return the updated {@link RemoteConfig}, or 412 if the precondition failed.
      */
     @PatchMapping("{env}")
     public ResponseEntity<RemoteConfig> updateConfigs(
         @RequestHeader("App-Id") String appId,
         @PathVariable String env,
         @RequestParam String version,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Map<String, Object> newConfigs
     ) {
-        RemoteConfig updated = remoteConfigService.updateConfigs(appId, env, version, newConfigs);
-        return ResponseEntity.ok(updated);
+        RemoteConfig updated = remoteConfigService.updateConfigs(
+            appId, env, version, newConfigs, ConfigETag.expectedRevision(ifMatch));
+        return ResponseEntity.ok()
+            .eTag(ConfigETag.of(updated))
+            .body(updated);
     }
 
     /**
@@ -114,19 +350,23 @@ public class RemoteConfigController {
      *
      * <p>This endpoint removes a {@link RemoteConfig} matching the given {@code appId}, {@code env},
      * and {@code version}. If the config exists, it is deleted and returned in the response.
+     * An optional {@code If-Match} header makes the deletion conditional, as for {@link #updateConfigs}.
      *
      * @param appId   the application ID from the request header.
      * @param env     the environment of the config (as path variable).
      * @param version the version to delete (as query param).
-     * @return the deleted {@link RemoteConfig}.
+     * @param ifMatch the optional ETag precondition.
+     * @return the deleted {@link RemoteConfig}, or 412 if the precondition failed.
      */
     @DeleteMapping("{env}")
     public ResponseEntity<RemoteConfig> deleteConfig(
         @RequestHeader("App-Id") String appId,
         @PathVariable String env,
-        @RequestParam String version
+        @RequestParam String version,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        RemoteConfig deleted = remoteConfigService.deleteConfig(appId, env, version);
+        RemoteConfig deleted = remoteConfigService.deleteConfig(
+            appId, env, version, ConfigETag.expectedRevision(ifMatch));
         return ResponseEntity.ok(deleted);
     }
 }
\ No newline at end of file
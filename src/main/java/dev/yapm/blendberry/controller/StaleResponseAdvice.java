@@ -0,0 +1,47 @@
+package dev.yapm.blendberry.controller;
+
+import dev.yapm.blendberry.fallback.LocalConfigStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Flags responses built from the {@link LocalConfigStore} while the database was unreachable.
+ *
+ * <p>Such responses carry an {@value #STALE_SINCE_HEADER} header holding the ISO-8601 instant the local copy was
+ * taken at, so clients can tell how old the data may be.</p>
+ */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STALE_SINCE_HEADER = "X-Config-Stale-Since";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+        Object body,
+        MethodParameter returnType,
+        MediaType selectedContentType,
+        Class<? extends HttpMessageConverter<?>> selectedConverterType,
+        ServerHttpRequest request,
+        ServerHttpResponse response
+    ) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            Object staleSince = servletRequest.getServletRequest().getAttribute(LocalConfigStore.STALE_SINCE_ATTRIBUTE);
+            if (staleSince != null)
+                response.getHeaders().set(STALE_SINCE_HEADER, staleSince.toString());
+        }
+        return body;
+    }
+}
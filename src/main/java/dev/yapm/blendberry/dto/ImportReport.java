@@ -0,0 +1,61 @@
+package dev.yapm.blendberry.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of a bulk NDJSON import.
+ */
+@Data
+@NoArgsConstructor
+public class ImportReport {
+
+    /**
+     * Number of non-blank lines read from the request body.
+     */
+    private long received;
+
+    /**
+     * Number of configurations that did not exist and were inserted.
+     */
+    private long inserted;
+
+    /**
+     * Number of existing configurations that were replaced.
+     */
+    private long updated;
+
+    /**
+     * Number of lines that could not be imported.
+     */
+    private long rejected;
+
+    /**
+     * Lines that could not be imported, up to the configured maximum, the others are only counted in
+     * {@code rejected}.
+     */
+    private List<LineError> errors = new ArrayList<>();
+
+    /**
+     * A line of the import that was rejected.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineError {
+
+        /**
+         * One-based line number in the request body.
+         */
+        private long line;
+
+        /**
+         * Reason why the line was rejected.
+         */
+        private String message;
+    }
+}
@@ -0,0 +1,33 @@
+package dev.yapm.blendberry.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single freshness check of a batch lookup.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LookupRequest {
+
+    /**
+     * Environment of the configuration to check.
+     */
+    @NotNull
+    private String env;
+
+    /**
+     * Version of the configuration to check.
+     */
+    @NotNull
+    private String version;
+
+    /**
+     * The client's last modification timestamp (ISO-8601 format).
+     */
+    @NotNull
+    private String lastModDate;
+}
@@ -0,0 +1,29 @@
+package dev.yapm.blendberry.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of a single freshness check of a batch lookup.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LookupResult {
+
+    /**
+     * Environment of the checked configuration.
+     */
+    private String env;
+
+    /**
+     * Version of the checked configuration.
+     */
+    private String version;
+
+    /**
+     * One of the {@code ConfigStatus} codes.
+     */
+    private int status;
+}
@@ -0,0 +1,28 @@
+package dev.yapm.blendberry.entity;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Reference from a layered {@link RemoteConfig} to the configuration of the same app it inherits from, such as a
+ * shared base environment or the previous version.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigParent {
+
+    /**
+     * Environment of the parent configuration.
+     */
+    @NotNull
+    private String env;
+
+    /**
+     * Version of the parent configuration.
+     */
+    @NotNull
+    private String version;
+}
\ No newline at end of file
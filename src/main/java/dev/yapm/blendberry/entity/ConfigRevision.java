@@ -0,0 +1,106 @@
+package dev.yapm.blendberry.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Past state of a {@link RemoteConfig}, as it was at one of its revisions.
+ * <p>
+ * Revisions are appended on every write of a configuration and pruned by the retention policy. They are the base
+ * states merge patches are computed from, so clients holding an older copy only download what changed since.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "configRevisions")
+@CompoundIndexes({
+    @CompoundIndex(name = "appEnvVersionRevisionIndex", def = "{'appId': 1, 'env': 1, 'version': 1, 'revision': 1}",
+        unique = true),
+    @CompoundIndex(name = "appEnvVersionModDateIndex", def = "{'appId': 1, 'env': 1, 'version': 1, 'lastModDate': 1}")
+})
+public class ConfigRevision {
+
+    /**
+     * Unique identifier for this revision document (MongoDB internal ID).
+     */
+    @Id
+    private String id;
+
+    /**
+     * Application identifier of the configuration.
+     */
+    private String appId;
+
+    /**
+     * Environment name of the configuration.
+     */
+    private String env;
+
+    /**
+     * Version of the configuration.
+     */
+    private String version;
+
+    /**
+     * Revision of the configuration this state was written at.
+     */
+    private Long revision;
+
+    /**
+     * Configuration map at this revision.
+     */
+    private Map<String, Object> configs;
+
+    /**
+     * Parent the configuration was layered on at this revision, if any.
+     */
+    private ConfigParent parent;
+
+    /**
+     * Creation date of the configuration, which tells apart a configuration re-created after a delete.
+     */
+    private Instant creationDate;
+
+    /**
+     * Modification timestamp of the configuration at this revision. Revisions older than the retention age are
+     * pruned on it.
+     */
+    @Indexed
+    private Instant lastModDate;
+
+    /**
+     * Records the current state of a configuration.
+     *
+     * @param config the configuration that was just written.
+     * @return an unsaved revision.
+     */
+    public static ConfigRevision of(RemoteConfig config) {
+        return new ConfigRevision(null, config.getAppId(), config.getEnv(), config.getVersion(),
+            config.getRevision() == null ? 0 : config.getRevision(), config.getConfigs(), config.getParent(),
+            config.getCreationDate(), config.getLastModDate());
+    }
+
+    /**
+     * Rebuilds the configuration as it was served at this revision.
+     *
+     * @return a detached {@link RemoteConfig}.
+     */
+    public RemoteConfig toRemoteConfig() {
+        return RemoteConfig.builder()
+            .appId(appId).env(env).version(version)
+            .configs(configs)
+            .parent(parent)
+            .creationDate(creationDate).lastModDate(lastModDate)
+            .revision(revision)
+            .build();
+    }
+}
\ No newline at end of file
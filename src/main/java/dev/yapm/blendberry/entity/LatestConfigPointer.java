@@ -0,0 +1,50 @@
+package dev.yapm.blendberry.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Materialized pointer to the most recently created {@link RemoteConfig} of an app and environment.
+ * <p>
+ * Resolving the {@code "latest"} version is a point lookup on this collection instead of a sort over every
+ * version of the environment. Pointers are maintained on every save and delete of a configuration.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "latestConfigs")
+@CompoundIndex(name = "appEnvIndex", def = "{'appId': 1, 'env': 1}", unique = true)
+public class LatestConfigPointer {
+
+    /**
+     * Unique identifier for this pointer document (MongoDB internal ID).
+     */
+    @Id
+    private String id;
+
+    /**
+     * Application identifier of the pointed configuration.
+     */
+    private String appId;
+
+    /**
+     * Environment name of the pointed configuration.
+     */
+    private String env;
+
+    /**
+     * Version of the latest configuration of the environment.
+     */
+    private String version;
+
+    /**
+     * Creation date of the pointed configuration, used to discard out-of-order updates.
+     */
+    private Instant creationDate;
+}
@@ -1,12 +1,18 @@
 package dev.yapm.blendberry.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.Instant;
@@ -23,14 +29,28 @@ import java.util.Map;
  * <p>
  * Dates are stored as UTC-based Instants to ensure correct synchronization
  * across distributed systems, regardless of local time zones.
+ * <p>
+ * A configuration may be layered on a {@link ConfigParent}. Its own values are then kept in {@code layer}, while
+ * {@code configs} holds the materialized deep merge of the parent view and the layer, so reads never resolve layers.
  */
 @Data
+@Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "configs")
-@CompoundIndex(name = "appEnvVersionIndex", def = "{'appId': 1, 'env': 1, 'version': 1}", unique = true)
+@CompoundIndexes({
+    @CompoundIndex(name = "appEnvVersionIndex", def = "{'appId': 1, 'env': 1, 'version': 1}", unique = true),
+    @CompoundIndex(name = RemoteConfig.FRESHNESS_INDEX, def = "{'appId': 1, 'env': 1, 'version': 1, 'lastModDate': 1}"),
+    @CompoundIndex(name = "appEnvCreationDateIndex", def = "{'appId': 1, 'env': 1, 'creationDate': -1}"),
+    @CompoundIndex(name = "appParentIndex", def = "{'appId': 1, 'parent.env': 1, 'parent.version': 1}")
+})
 public class RemoteConfig {
 
+    /**
+     * Name of the index covering freshness lookups, which only need {@code lastModDate}.
+     */
+    public static final String FRESHNESS_INDEX = "appEnvVersionModDateIndex";
+
     /**
      * Unique identifier for this configuration document (MongoDB internal ID).
      */
@@ -62,14 +82,30 @@ public class RemoteConfig {
     /**
      * A generic map of key-value pairs representing the actual configuration data.
      * Values can be strings, booleans, numbers, or nested structures.
+     * For a layered configuration, this is the merged view served to clients.
      */
     private Map<String, Object> configs;
 
+    /**
+     * Configuration this one is layered on, or {@code null} if it stands alone.
+     */
+    @Valid
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ConfigParent parent;
+
+    /**
+     * Own values of a layered configuration, overriding those of its parent. A {@code null} value removes an
+     * inherited key. Not read on the serving path, so clients only receive the merged {@code configs}.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Object> layer;
+
     /**
      * Timestamp representing when this configuration was first created.
      * Stored in UTC (ISO-8601) for consistency.
      * Used to resolve the latest version in a specific environment.
      */
+    @Builder.Default
     private Instant creationDate = Instant.now();
 
     /**
@@ -77,5 +113,22 @@ public class RemoteConfig {
      * Stored in UTC (ISO-8601) for consistency.
      * Used to determine if client-side data needs to be updated.
      */
+    @Indexed
+    @Builder.Default
     private Instant lastModDate = Instant.now();
+
+    /**
+     * Revision counter incremented on every modification.
+     * Used for optimistic concurrency control through {@code If-Match} preconditions.
+     */
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long revision;
+
+    /**
+     * Whether configurations have been layered on this one. Set when a child is written and never cleared, so an
+     * update of a configuration without it can skip looking for views to rebuild.
+     */
+    @JsonIgnore
+    private boolean inherited;
 }
\ No newline at end of file
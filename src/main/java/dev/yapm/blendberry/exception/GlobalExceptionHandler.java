@@ -1,5 +1,7 @@
 package dev.yapm.blendberry.exception;
 
+import dev.yapm.blendberry.metrics.RemoteConfigMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
@@ -18,6 +20,13 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final RemoteConfigMetrics metrics;
+
+    @Autowired
+    public GlobalExceptionHandler(RemoteConfigMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Handles validation failures for annotated request parameters or bodies.
      *
@@ -29,7 +38,7 @@ public class GlobalExceptionHandler {
         Map<String, String> response = new HashMap<>();
         response.put("error", "ValidationError");
         response.put("message", "Argument Not Valid");
-        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        return respond(metrics, response, HttpStatus.BAD_REQUEST);
     }
 
     /**
@@ -43,7 +52,35 @@ public class GlobalExceptionHandler {
         Map<String, String> response = new HashMap<>();
         response.put("error", "DateTimeParseError");
         response.put("message", "Invalid Date Format");
-        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        return respond(metrics, response, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles key selectors that cannot be translated into a projection.
+     *
+     * @param e the exception describing the offending selector.
+     * @return a 400 BAD REQUEST with a descriptive message.
+     */
+    @ExceptionHandler(InvalidConfigSelectionException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidSelectionException(InvalidConfigSelectionException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "InvalidSelectionError");
+        response.put("message", e.getMessage());
+        return respond(metrics, response, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles layered configurations whose parent cannot be inherited from.
+     *
+     * @param e the exception describing why the parent was rejected.
+     * @return a 400 BAD REQUEST with a descriptive message.
+     */
+    @ExceptionHandler(InvalidConfigLayerException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidLayerException(InvalidConfigLayerException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "InvalidLayerError");
+        response.put("message", e.getMessage());
+        return respond(metrics, response, HttpStatus.BAD_REQUEST);
     }
 
     /**
@@ -58,7 +95,7 @@ public class GlobalExceptionHandler {
         response.put("error", "DuplicateKeyError");
         response.put("message", "Duplicated Key");
         response.put("details", e.getMostSpecificCause().getMessage());
-        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+        return respond(metrics, response, HttpStatus.CONFLICT);
     }
 
     /**
@@ -72,7 +109,7 @@ public class GlobalExceptionHandler {
         Map<String, Object> response = new HashMap<>();
         response.put("error", "UnexpectedError");
         response.put("message", "An unexpected error occurred");
-        return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        return respond(metrics, response, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
     /**
@@ -87,20 +124,65 @@ public class GlobalExceptionHandler {
         response.put("error", "DatabaseError");
         response.put("message", "Database Access Error");
         response.put("details", e.getMostSpecificCause().getMessage());
-        return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        return respond(metrics, response, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
     /**
      * Handles cases where a remote configuration is not found.
      *
+     * <p>This is the hottest error path. The message names the requested key, so the body cannot be a shared
+     * constant, and is built instead as a single compact immutable map, without the hashing of a {@link HashMap}.
+     * The exception itself carries no stack trace.</p>
+     *
      * @param e the exception indicating no config matched the lookup.
      * @return a 404 NOT FOUND with a descriptive message.
      */
     @ExceptionHandler(RemoteConfigNotFoundException.class)
     public ResponseEntity<Map<String, Object>> handleRCNFException(RemoteConfigNotFoundException e) {
+        return respond(metrics, Map.of("error", "RemoteConfigNotFound", "message", e.getMessage()),
+            HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handles conditional writes whose {@code If-Match} precondition did not hold.
+     *
+     * @param e the exception indicating the config was modified concurrently.
+     * @return a 412 PRECONDITION FAILED with a descriptive message.
+     */
+    @ExceptionHandler(RemoteConfigConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleRCCException(RemoteConfigConflictException e) {
         Map<String, Object> response = new HashMap<>();
-        response.put("error", "RemoteConfigNotFound");
+        response.put("error", "RemoteConfigConflict");
         response.put("message", e.getMessage());
-        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+        return respond(metrics, response, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * Handles deletions of configurations other configurations are layered on.
+     *
+     * @param e the exception indicating the config still has children.
+     * @return a 409 CONFLICT with a descriptive message.
+     */
+    @ExceptionHandler(RemoteConfigInUseException.class)
+    public ResponseEntity<Map<String, Object>> handleRCIUException(RemoteConfigInUseException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "RemoteConfigInUse");
+        response.put("message", e.getMessage());
+        return respond(metrics, response, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Counts the error under the name of its {@code error} field, so every handler is measured the same way.
+     *
+     * @param metrics the metrics to count the error with.
+     * @param body    the error body, with an {@code error} field.
+     * @param status  the response status.
+     * @return the error response.
+     */
+    static <T> ResponseEntity<Map<String, T>> respond(
+        RemoteConfigMetrics metrics, Map<String, T> body, HttpStatus status
+    ) {
+        metrics.countError(String.valueOf(body.get("error")));
+        return new ResponseEntity<>(body, status);
     }
 }
\ No newline at end of file
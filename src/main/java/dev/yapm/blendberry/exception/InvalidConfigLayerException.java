@@ -0,0 +1,20 @@
+package dev.yapm.blendberry.exception;
+
+/**
+ * Thrown to indicate that the parent declared by a remote configuration cannot be layered upon, because it does not
+ * exist, the configuration would end up inheriting from itself, or the chain of parents would be too deep.
+ */
+public class InvalidConfigLayerException extends RuntimeException {
+
+    /**
+     * Constructs a new exception for the given configuration.
+     *
+     * @param appId   the application ID of the layered configuration.
+     * @param env     the environment of the layered configuration.
+     * @param version the version of the layered configuration.
+     * @param reason  why its parent was rejected.
+     */
+    public InvalidConfigLayerException(String appId, String env, String version, String reason) {
+        super("Invalid parent for appId=" + appId + ", env=" + env + ", version=" + version + ": " + reason);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package dev.yapm.blendberry.exception;
+
+/**
+ * Thrown to indicate that a key selector of a config request cannot be translated into a projection.
+ */
+public class InvalidConfigSelectionException extends RuntimeException {
+
+    /**
+     * Constructs a new exception for the given selector.
+     *
+     * @param selector the offending selector.
+     * @param reason   why it was rejected.
+     */
+    public InvalidConfigSelectionException(String selector, String reason) {
+        super("Invalid key selector '" + selector + "': " + reason);
+    }
+}
\ No newline at end of file
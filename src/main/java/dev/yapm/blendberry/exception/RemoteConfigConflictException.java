@@ -0,0 +1,18 @@
+package dev.yapm.blendberry.exception;
+
+/**
+ * Thrown to indicate that a conditional write was rejected because the remote configuration no longer has the
+ * revision expected by the client.
+ *
+ * <p>This exception is typically thrown when two clients modify the same configuration concurrently.</p>
+ */
+public class RemoteConfigConflictException extends RuntimeException {
+
+    /**
+     * Constructs a new exception with the specified detail message.
+     */
+    public RemoteConfigConflictException(String appId, String env, String version, long expectedRevision) {
+        super("Configuration for appId=" + appId + ", env=" + env + ", version=" + version
+            + " is no longer at revision " + expectedRevision);
+    }
+}
@@ -0,0 +1,15 @@
+package dev.yapm.blendberry.exception;
+
+/**
+ * Thrown to indicate that a remote configuration cannot be deleted because other configurations are layered on it.
+ */
+public class RemoteConfigInUseException extends RuntimeException {
+
+    /**
+     * Constructs a new exception with the specified detail message.
+     */
+    public RemoteConfigInUseException(String appId, String env, String version) {
+        super("Configuration for appId=" + appId + ", env=" + env + ", version=" + version
+            + " is the parent of other configurations");
+    }
+}
\ No newline at end of file
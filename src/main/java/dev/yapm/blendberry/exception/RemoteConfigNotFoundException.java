@@ -3,7 +3,8 @@ package dev.yapm.blendberry.exception;
 /**
  * Thrown to indicate that no remote configuration was found for the specified appId, environment, and version.
  *
- * <p>This exception is typically thrown when attempting to fetch a specific configuration that does not exist.</p>
+ * <p>This exception is typically thrown when attempting to fetch a specific configuration that does not exist.
+ * As it is part of normal control flow under polling clients, it does not capture a stack trace.</p>
  */
 public class RemoteConfigNotFoundException extends RuntimeException {
 
@@ -11,6 +12,7 @@ public class RemoteConfigNotFoundException extends RuntimeException {
      * Constructs a new exception with the specified detail message.
      */
     public RemoteConfigNotFoundException(String appId, String env, String version) {
-        super("No configuration found for appId=" + appId + ", env=" + env + ", " + " version=" + version);
+        super("No configuration found for appId=" + appId + ", env=" + env + ", " + " version=" + version,
+            null, false, false);
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package dev.yapm.blendberry.fallback;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * Thrown instead of querying the database while a recent outage is assumed to last, so reads fall back to the
+ * {@link LocalConfigStore} without waiting for the driver to time out again.
+ */
+public class DatabaseOutageException extends DataAccessResourceFailureException {
+
+    /**
+     * Constructs a new exception caused by the failure that revealed the outage.
+     */
+    public DatabaseOutageException(Throwable cause) {
+        super("The database is assumed unreachable since a recent failure", cause);
+    }
+}
\ No newline at end of file
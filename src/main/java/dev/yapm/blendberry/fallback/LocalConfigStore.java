@@ -0,0 +1,433 @@
+package dev.yapm.blendberry.fallback;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.mongodb.MongoTimeoutException;
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.repository.ConfigFreshness;
+import dev.yapm.blendberry.repository.RemoteConfigRepository;
+import dev.yapm.blendberry.service.RemoteConfigBatchChangedEvent;
+import dev.yapm.blendberry.service.RemoteConfigChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Local on-disk copy of every {@link RemoteConfig}, used to keep serving reads while the database is unreachable.
+ *
+ * <p>The copy is a single memory-mapped file holding one Smile-encoded config per record. It is indexed by
+ * (appId, env, version) when mapped, so a lookup never reads more than the record it needs. The file is mapped
+ * while the application context starts, before the web server accepts traffic, and is then refreshed in the
+ * background: incrementally from the highest {@code lastModDate} it holds, and periodically from scratch to pick
+ * up deletions and writes whose {@code lastModDate} went backwards.</p>
+ *
+ * <p>Reads answered from this store mark the current request as stale, see {@link #STALE_SINCE_ATTRIBUTE}.</p>
+ *
+ * <p>Once a read finds the database unreachable, the following ones skip it for
+ * {@code blendberry.local-store.outage-retry-interval}, see {@link #checkDatabase()}, so an outage costs one driver
+ * timeout per interval rather than one per request. Waiting too long for a pooled connection while the driver still
+ * reaches the database only means this replica is busy, and does not count as an outage.</p>
+ *
+ * <p>File layout, all integers big-endian:</p>
+ * <pre>
+ * header: magic "BBSTORE1" | writtenAt (long, epoch millis) | watermark (long, epoch millis)
+ * record: length (int) | appId | env | version | creationDate (long) | lastModDate (long) | payload
+ * string and payload: length (int) | bytes
+ * </pre>
+ */
+@Slf4j
+@Component
+public class LocalConfigStore {
+
+    /**
+     * Request attribute holding the {@link Instant} the served data was copied at, set when a read of the current
+     * request was answered from this store.
+     */
+    public static final String STALE_SINCE_ATTRIBUTE = LocalConfigStore.class.getName() + ".staleSince";
+
+    private static final byte[] MAGIC = "BBSTORE1".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int WATERMARK_OFFSET = MAGIC.length + Long.BYTES;
+
+    private static final int HEADER_BYTES = WATERMARK_OFFSET + Long.BYTES;
+
+    private final RemoteConfigRepository repository;
+
+    private final TaskScheduler scheduler;
+
+    private final MongoReachability reachability;
+
+    private final BlendBerryProperties.LocalStore settings;
+
+    private final ObjectMapper smile;
+
+    private final Set<ConfigKey> pendingDeletions = ConcurrentHashMap.newKeySet();
+
+    private volatile StoreFile current;
+
+    private Instant lastFullRefresh = Instant.EPOCH;
+
+    private volatile Outage outage;
+
+    @Autowired
+    public LocalConfigStore(
+        RemoteConfigRepository repository,
+        TaskScheduler scheduler,
+        MongoReachability reachability,
+        BlendBerryProperties properties
+    ) {
+        this.repository = repository;
+        this.scheduler = scheduler;
+        this.reachability = reachability;
+        this.settings = properties.getLocalStore();
+        // Annotations are ignored so the id and revision, hidden from API clients, survive a round trip.
+        this.smile = Jackson2ObjectMapperBuilder.smile()
+            .featuresToDisable(MapperFeature.USE_ANNOTATIONS)
+            .build();
+    }
+
+    /**
+     * Maps the file written by a previous run, if any.
+     */
+    @PostConstruct
+    void open() {
+        if (!settings.isEnabled() || !Files.exists(settings.getPath()))
+            return;
+        try {
+            current = map(settings.getPath());
+            log.info("Mapped {} configurations copied at {} from {}",
+                current.index().size(), current.writtenAt(), settings.getPath());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable local config store {}", settings.getPath(), e);
+        }
+    }
+
+    /**
+     * Starts the background refreshes once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleRefreshes() {
+        if (settings.isEnabled())
+            scheduler.scheduleWithFixedDelay(this::refresh, Instant.now(), settings.getRefreshInterval());
+    }
+
+    /**
+     * Records deletions, which incremental refreshes cannot see in the database.
+     *
+     * @param event the local or remote change.
+     */
+    @EventListener
+    public void onConfigChanged(RemoteConfigChangedEvent event) {
+        if (event.deleted() && settings.isEnabled())
+            pendingDeletions.add(event.key());
+    }
+
+    /**
+     * Records the deletions of a batch of changes.
+     *
+     * @param event the local changes.
+     */
+    @EventListener
+    public void onConfigsChanged(RemoteConfigBatchChangedEvent event) {
+        event.changes().forEach(this::onConfigChanged);
+    }
+
+    /**
+     * Fails fast while a recent outage is assumed to last, so the caller falls back to this store right away.
+     *
+     * @throws DatabaseOutageException if the database was found unreachable less than the retry interval ago.
+     */
+    public void checkDatabase() {
+        Outage known = outage;
+        if (known != null && Instant.now().isBefore(known.until()))
+            throw new DatabaseOutageException(known.cause());
+    }
+
+    /**
+     * Remembers that the database was found unreachable, so reads skip it for the retry interval.
+     * Failures that do not reveal an outage, such as rejected queries or a saturated connection pool, are ignored.
+     *
+     * @param e the failure of a database read.
+     */
+    public void recordFailure(DataAccessException e) {
+        if (settings.isEnabled() && e instanceof DataAccessResourceFailureException
+            && !(e instanceof DatabaseOutageException) && !isSaturation(e))
+            outage = new Outage(Instant.now().plus(settings.getOutageRetryInterval()), e);
+    }
+
+    /**
+     * @return the instant the current copy was taken, empty if no copy is available.
+     */
+    public Optional<Instant> copiedAt() {
+        StoreFile file = current;
+        return file == null ? Optional.empty() : Optional.of(file.writtenAt());
+    }
+
+    /**
+     * Reads a configuration from the local copy and marks the current request as stale if found.
+     *
+     * @param key the configuration key.
+     * @return an {@link Optional} containing the copied config, empty if it was not copied.
+     */
+    public Optional<RemoteConfig> find(ConfigKey key) {
+        StoreFile file = current;
+        if (file == null)
+            return Optional.empty();
+        Entry entry = file.index().get(key);
+        if (entry == null)
+            return Optional.empty();
+        try {
+            RemoteConfig config = smile.readValue(
+                new ByteBufferBackedInputStream(file.buffer().slice(entry.payloadOffset(), entry.payloadLength())),
+                RemoteConfig.class);
+            markStale(file);
+            return Optional.of(config);
+        } catch (IOException e) {
+            log.warn("Could not decode {} from the local config store", key, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reads the most recently created configuration of an environment from the local copy.
+     *
+     * @param appId the application identifier.
+     * @param env   the environment.
+     * @return an {@link Optional} containing the copied config, empty if the environment was not copied.
+     */
+    public Optional<RemoteConfig> findLatest(String appId, String env) {
+        StoreFile file = current;
+        if (file == null)
+            return Optional.empty();
+        ConfigKey latest = file.latest().get(new ConfigKey(appId, env, null));
+        return latest == null ? Optional.empty() : find(latest);
+    }
+
+    /**
+     * Reads the modification timestamps of several configurations from the local copy index, without decoding them.
+     *
+     * @param keys the keys to resolve.
+     * @return an {@link Optional} containing the freshness of the copied configurations, empty if no copy is
+     * available.
+     */
+    public Optional<List<ConfigFreshness>> findFreshness(Collection<ConfigKey> keys) {
+        StoreFile file = current;
+        if (file == null)
+            return Optional.empty();
+        List<ConfigFreshness> found = new ArrayList<>(keys.size());
+        for (ConfigKey key : keys) {
+            Entry entry = file.index().get(key);
+            if (entry != null)
+                found.add(new ConfigFreshness(
+                    key.appId(), key.env(), key.version(), Instant.ofEpochMilli(entry.lastModMillis())));
+        }
+        if (!found.isEmpty())
+            markStale(file);
+        return Optional.of(found);
+    }
+
+    /**
+     * Brings the local copy up to date, fully when a rebuild is due and incrementally otherwise.
+     * Failures are logged and the previous copy is kept.
+     */
+    public synchronized void refresh() {
+        try {
+            StoreFile previous = current;
+            if (previous == null || !Instant.now().isBefore(lastFullRefresh.plus(settings.getFullRefreshInterval())))
+                rebuild();
+            else
+                update(previous);
+        } catch (IOException | DataAccessException e) {
+            log.warn("Could not refresh the local config store {}", settings.getPath(), e);
+        }
+    }
+
+    /**
+     * Tells a wait for a pooled connection that timed out while the driver still reaches the database.
+     */
+    private boolean isSaturation(DataAccessException e) {
+        return e.getCause() instanceof MongoTimeoutException && reachability.isReachable();
+    }
+
+    private void rebuild() throws IOException {
+        Instant startedAt = Instant.now();
+        Set<ConfigKey> deleted = Set.copyOf(pendingDeletions);
+        try (Stream<RemoteConfig> configs = repository.streamAll(null)) {
+            write(null, configs.iterator(), Set.of(), 0L);
+        }
+        pendingDeletions.removeAll(deleted);
+        lastFullRefresh = startedAt;
+    }
+
+    private void update(StoreFile previous) throws IOException {
+        Set<ConfigKey> deleted = Set.copyOf(pendingDeletions);
+        List<RemoteConfig> modified;
+        try (Stream<RemoteConfig> configs = repository.streamModifiedSince(previous.watermark())) {
+            modified = configs.toList();
+        }
+        if (modified.isEmpty() && deleted.isEmpty())
+            return;
+        write(previous, modified.iterator(), deleted, previous.watermark().toEpochMilli());
+        pendingDeletions.removeAll(deleted);
+    }
+
+    /**
+     * Writes the given configurations followed by the untouched records of the previous file to a temporary file,
+     * then atomically replaces the store with it.
+     */
+    private void write(StoreFile previous, Iterator<RemoteConfig> configs, Set<ConfigKey> deleted, long watermark)
+        throws IOException {
+        Path target = settings.getPath().toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        Set<ConfigKey> written = new HashSet<>();
+        try (FileChannel channel = FileChannel.open(temp,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.write(MAGIC);
+            out.writeLong(Instant.now().toEpochMilli());
+            out.writeLong(watermark);
+            while (configs.hasNext()) {
+                RemoteConfig config = configs.next();
+                writeRecord(out, config);
+                written.add(ConfigKey.of(config));
+                watermark = Math.max(watermark, config.getLastModDate().toEpochMilli());
+            }
+            if (previous != null) {
+                for (Map.Entry<ConfigKey, Entry> record : previous.index().entrySet()) {
+                    if (written.contains(record.getKey()) || deleted.contains(record.getKey()))
+                        continue;
+                    byte[] bytes = new byte[record.getValue().recordLength()];
+                    previous.buffer().get(record.getValue().recordOffset(), bytes);
+                    out.write(bytes);
+                }
+            }
+            out.flush();
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, watermark), WATERMARK_OFFSET);
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        current = map(target);
+    }
+
+    private void writeRecord(DataOutputStream out, RemoteConfig config) throws IOException {
+        byte[] appId = config.getAppId().getBytes(StandardCharsets.UTF_8);
+        byte[] env = config.getEnv().getBytes(StandardCharsets.UTF_8);
+        byte[] version = config.getVersion().getBytes(StandardCharsets.UTF_8);
+        // Only the merged view of a layered config is served, so its own values are not worth the space.
+        config.setLayer(null);
+        byte[] payload = smile.writeValueAsBytes(config);
+        out.writeInt(4 * Integer.BYTES + appId.length + env.length + version.length + 2 * Long.BYTES + payload.length);
+        writeBytes(out, appId);
+        writeBytes(out, env);
+        writeBytes(out, version);
+        out.writeLong(config.getCreationDate().toEpochMilli());
+        out.writeLong(config.getLastModDate().toEpochMilli());
+        writeBytes(out, payload);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static StoreFile map(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        byte[] magic = new byte[MAGIC.length];
+        if (buffer.limit() >= HEADER_BYTES)
+            buffer.get(0, magic);
+        if (!Arrays.equals(magic, MAGIC))
+            throw new IOException("Not a local config store: " + path);
+
+        Map<ConfigKey, Entry> index = new HashMap<>();
+        Map<ConfigKey, ConfigKey> latest = new HashMap<>();
+        Map<ConfigKey, Long> latestCreation = new HashMap<>();
+        ByteBuffer reader = buffer.duplicate().position(HEADER_BYTES);
+        while (reader.hasRemaining()) {
+            int recordOffset = reader.position();
+            int recordLength = Integer.BYTES + reader.getInt();
+            ConfigKey key = new ConfigKey(readString(reader), readString(reader), readString(reader));
+            long creationMillis = reader.getLong();
+            long lastModMillis = reader.getLong();
+            int payloadLength = reader.getInt();
+            index.put(key, new Entry(recordOffset, recordLength, reader.position(), payloadLength, lastModMillis));
+            reader.position(recordOffset + recordLength);
+
+            ConfigKey envKey = new ConfigKey(key.appId(), key.env(), null);
+            if (creationMillis >= latestCreation.getOrDefault(envKey, Long.MIN_VALUE)) {
+                latestCreation.put(envKey, creationMillis);
+                latest.put(envKey, key);
+            }
+        }
+        return new StoreFile(buffer, index, latest,
+            Instant.ofEpochMilli(buffer.getLong(MAGIC.length)), Instant.ofEpochMilli(buffer.getLong(WATERMARK_OFFSET)));
+    }
+
+    private static String readString(ByteBuffer reader) {
+        byte[] bytes = new byte[reader.getInt()];
+        reader.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void markStale(StoreFile file) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null)
+            attributes.setAttribute(STALE_SINCE_ATTRIBUTE, file.writtenAt(), RequestAttributes.SCOPE_REQUEST);
+    }
+
+    private record StoreFile(
+        MappedByteBuffer buffer,
+        Map<ConfigKey, Entry> index,
+        Map<ConfigKey, ConfigKey> latest,
+        Instant writtenAt,
+        Instant watermark
+    ) {}
+
+    private record Entry(
+        int recordOffset, int recordLength, int payloadOffset, int payloadLength, long lastModMillis
+    ) {}
+
+    private record Outage(Instant until, DataAccessException cause) {}
+}
@@ -0,0 +1,30 @@
+package dev.yapm.blendberry.fallback;
+
+import com.mongodb.connection.ServerDescription;
+import com.mongodb.event.ClusterDescriptionChangedEvent;
+import com.mongodb.event.ClusterListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Follows the driver's view of the cluster, to tell a database that cannot be reached from one that is only busy.
+ *
+ * <p>Registered on the driver by {@link dev.yapm.blendberry.config.MongoPoolConfig}. A pool wait timeout and a server
+ * selection timeout surface as the same exception, but only the latter happens while no server is reachable.</p>
+ */
+@Component
+public class MongoReachability implements ClusterListener {
+
+    private volatile boolean reachable = true;
+
+    @Override
+    public void clusterDescriptionChanged(ClusterDescriptionChangedEvent event) {
+        reachable = event.getNewDescription().getServerDescriptions().stream().anyMatch(ServerDescription::isOk);
+    }
+
+    /**
+     * @return {@code true} unless the last heartbeats found no server the driver can talk to.
+     */
+    public boolean isReachable() {
+        return reachable;
+    }
+}
\ No newline at end of file
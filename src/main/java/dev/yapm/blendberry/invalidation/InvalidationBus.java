@@ -0,0 +1,338 @@
+package dev.yapm.blendberry.invalidation;
+
+import com.mongodb.CursorType;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.cache.RemoteConfigCache;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.service.RemoteConfigBatchChangedEvent;
+import dev.yapm.blendberry.service.RemoteConfigChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Propagates configuration changes between API replicas, so each replica evicts its in-memory state when another
+ * one writes.
+ *
+ * <p>Every local {@link RemoteConfigChangedEvent}, and every change of a {@link RemoteConfigBatchChangedEvent}, is
+ * appended to a capped {@code invalidations} collection. Appends are queued and written in batches by a dedicated
+ * flusher thread, so they never add a round trip to the write that caused them, nor wait behind the scheduled
+ * tasks of the application. Each replica listens to that collection, through a change stream when connected to a
+ * replica set or by tailing the capped collection otherwise, evicts the affected cache entries and re-publishes the
+ * change locally as a remote event so parked watchers are woken too.</p>
+ *
+ * <p>Each invalidation carries a {@code seq} timestamp assigned by the server on insert, which only grows within a
+ * deployment, so the tailing listener resumes after the last one it saw. Client-generated {@code _id}s are not used
+ * for that, as those of different replicas are not ordered.</p>
+ *
+ * <p>Invalidations missed while a listener reconnects are bounded by the cache TTL.</p>
+ */
+@Slf4j
+@Component
+public class InvalidationBus implements SmartLifecycle {
+
+    private static final int CHANGE_STREAM_UNSUPPORTED = 40573;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final RemoteConfigCache cache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BlendBerryProperties.Invalidation settings;
+
+    private final String replicaId = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+
+    private volatile Thread listener;
+
+    private volatile boolean collectionReady;
+
+    private BsonDocument resumeToken;
+
+    private BsonTimestamp lastSeenSeq;
+
+    private final Executor flusher;
+
+    private final Queue<Document> outbox = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    @Autowired
+    public InvalidationBus(
+        MongoTemplate mongoTemplate,
+        RemoteConfigCache cache,
+        ApplicationEventPublisher eventPublisher,
+        BlendBerryProperties properties
+    ) {
+        this(mongoTemplate, cache, eventPublisher, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "config-invalidation-flusher");
+            thread.setDaemon(true);
+            return thread;
+        }), properties);
+    }
+
+    InvalidationBus(
+        MongoTemplate mongoTemplate,
+        RemoteConfigCache cache,
+        ApplicationEventPublisher eventPublisher,
+        Executor flusher,
+        BlendBerryProperties properties
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.cache = cache;
+        this.eventPublisher = eventPublisher;
+        this.flusher = flusher;
+        this.settings = properties.getInvalidation();
+    }
+
+    /**
+     * Queues a change made by this replica for broadcast to the other replicas.
+     *
+     * <p>A failure to broadcast is logged and does not fail the write that caused it.</p>
+     *
+     * @param event the local change.
+     */
+    @EventListener
+    public void onConfigChanged(RemoteConfigChangedEvent event) {
+        if (event.remote() || settings.getMode() == BlendBerryProperties.InvalidationMode.NONE)
+            return;
+        outbox.add(toInvalidation(event));
+        scheduleFlush();
+    }
+
+    /**
+     * Queues a batch of changes made by this replica for broadcast to the other replicas, in a single write.
+     *
+     * <p>A failure to broadcast is logged and does not fail the writes that caused it.</p>
+     *
+     * @param event the local changes.
+     */
+    @EventListener
+    public void onConfigsChanged(RemoteConfigBatchChangedEvent event) {
+        if (event.changes().isEmpty() || settings.getMode() == BlendBerryProperties.InvalidationMode.NONE)
+            return;
+        event.changes().forEach(change -> outbox.add(toInvalidation(change)));
+        scheduleFlush();
+    }
+
+    /**
+     * Writes every queued invalidation in a single unordered insert.
+     */
+    void flush() {
+        flushScheduled.set(false);
+        List<Document> pending = new ArrayList<>();
+        for (Document invalidation = outbox.poll(); invalidation != null; invalidation = outbox.poll())
+            pending.add(invalidation);
+        if (pending.isEmpty())
+            return;
+        try {
+            // An insert would implicitly create a collection that is not capped, the listener could not tail it.
+            ensureCappedCollection();
+            collection().insertMany(pending, new InsertManyOptions().ordered(false));
+        } catch (RuntimeException e) {
+            log.warn("Could not broadcast {} invalidations", pending.size(), e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (settings.getMode() == BlendBerryProperties.InvalidationMode.NONE)
+            return;
+        running = true;
+        Thread thread = new Thread(this::listen, "config-invalidation-listener");
+        thread.setDaemon(true);
+        listener = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        flush();
+        running = false;
+        Thread thread = listener;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(settings.getMaxAwaitTime().toMillis() * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean useChangeStream = settings.getMode() != BlendBerryProperties.InvalidationMode.TAILABLE;
+        while (running) {
+            try {
+                ensureCappedCollection();
+                if (useChangeStream)
+                    watchChangeStream();
+                else
+                    tailCappedCollection();
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_UNSUPPORTED
+                    && settings.getMode() == BlendBerryProperties.InvalidationMode.AUTO) {
+                    log.info("Change streams are not available, tailing the capped invalidations collection instead");
+                    useChangeStream = false;
+                } else {
+                    retryLater(e);
+                }
+            } catch (RuntimeException e) {
+                retryLater(e);
+            }
+        }
+    }
+
+    private void watchChangeStream() {
+        ChangeStreamIterable<Document> stream = collection()
+            .watch(List.of(Aggregates.match(Filters.eq("operationType", "insert"))))
+            .maxAwaitTime(settings.getMaxAwaitTime().toMillis(), TimeUnit.MILLISECONDS);
+        if (resumeToken != null)
+            stream = stream.resumeAfter(resumeToken);
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null)
+                    apply(change.getFullDocument());
+                if (cursor.getResumeToken() != null)
+                    resumeToken = cursor.getResumeToken();
+            }
+        }
+    }
+
+    private void tailCappedCollection() {
+        if (lastSeenSeq == null) {
+            // Start after the newest invalidation, older ones are already reflected in the database.
+            Document newest = collection().find().sort(new Document("$natural", -1)).limit(1).first();
+            lastSeenSeq = newest == null ? null : newest.get("seq", BsonTimestamp.class);
+        }
+        Bson filter = lastSeenSeq == null ? Filters.exists("seq") : Filters.gt("seq", lastSeenSeq);
+        try (MongoCursor<Document> cursor = collection().find(filter)
+            .cursorType(CursorType.TailableAwait)
+            .maxAwaitTime(settings.getMaxAwaitTime().toMillis(), TimeUnit.MILLISECONDS)
+            .noCursorTimeout(true)
+            .iterator()) {
+            while (running) {
+                Document invalidation = cursor.tryNext();
+                if (invalidation != null) {
+                    lastSeenSeq = invalidation.get("seq", BsonTimestamp.class);
+                    apply(invalidation);
+                } else if (cursor.getServerCursor() == null) {
+                    // A tailable cursor over an empty collection is closed immediately by the server.
+                    sleep();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled.compareAndSet(false, true))
+            return;
+        flusher.execute(this::flush);
+    }
+
+    private Document toInvalidation(RemoteConfigChangedEvent event) {
+        ConfigKey key = event.key();
+        // An empty timestamp within the first two fields is replaced by the server with a unique, increasing one.
+        return new Document("seq", new BsonTimestamp())
+            .append("origin", replicaId)
+            .append("appId", key.appId())
+            .append("env", key.env())
+            .append("version", key.version())
+            .append("lastModDate", Date.from(event.lastModDate()))
+            .append("deleted", event.deleted());
+    }
+
+    /**
+     * Evicts the state affected by an invalidation of another replica and wakes its watchers.
+     */
+    void apply(Document invalidation) {
+        if (invalidation == null || replicaId.equals(invalidation.getString("origin")))
+            return;
+        String appId = invalidation.getString("appId");
+        String env = invalidation.getString("env");
+        ConfigKey key = new ConfigKey(appId, env, invalidation.getString("version"));
+        cache.invalidate(key);
+        cache.invalidateLatest(appId, env);
+
+        Date lastModDate = invalidation.getDate("lastModDate");
+        eventPublisher.publishEvent(new RemoteConfigChangedEvent(key,
+            lastModDate == null ? Instant.now() : lastModDate.toInstant(),
+            invalidation.getBoolean("deleted", false),
+            true));
+    }
+
+    private void ensureCappedCollection() {
+        if (collectionReady)
+            return;
+        if (!mongoTemplate.collectionExists(settings.getCollection())) {
+            try {
+                mongoTemplate.createCollection(settings.getCollection(),
+                    CollectionOptions.empty().capped().size(settings.getCappedSize().toBytes()));
+            } catch (RuntimeException e) {
+                // Another replica created it concurrently.
+                if (!mongoTemplate.collectionExists(settings.getCollection()))
+                    throw e;
+            }
+        }
+        collectionReady = true;
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(settings.getCollection());
+    }
+
+    private void retryLater(RuntimeException e) {
+        if (!running)
+            return;
+        log.warn("Invalidation listener failed, reconnecting in {}", settings.getRetryDelay(), e);
+        sleep();
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(settings.getRetryDelay().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
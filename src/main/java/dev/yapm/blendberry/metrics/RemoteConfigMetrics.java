@@ -0,0 +1,131 @@
+package dev.yapm.blendberry.metrics;
+
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.exception.RemoteConfigNotFoundException;
+import dev.yapm.blendberry.service.ConfigStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Records the application metrics of config serving.
+ *
+ * <p>Metrics are tagged by environment and outcome. The app ID tag is only added when
+ * {@code blendberry.metrics.tag-app-id} is enabled, to keep the number of time series bounded.</p>
+ */
+@Component
+public class RemoteConfigMetrics {
+
+    /**
+     * Common prefix of every application metric.
+     */
+    public static final String PREFIX = "blendberry";
+
+    private final MeterRegistry registry;
+
+    private final boolean tagAppId;
+
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RemoteConfigMetrics(MeterRegistry registry, BlendBerryProperties properties) {
+        this.registry = registry;
+        this.tagAppId = properties.getMetrics().isTagAppId();
+    }
+
+    /**
+     * Times a service operation into {@code blendberry.service.calls}.
+     *
+     * @param operation the operation name.
+     * @param appId     the application ID of the call.
+     * @param env       the environment of the call.
+     * @param call      the operation to run.
+     * @return the result of the operation.
+     */
+    public <T> T time(String operation, String appId, String env, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } catch (RemoteConfigNotFoundException e) {
+            outcome = "not_found";
+            throw e;
+        } finally {
+            sample.stop(registry.timer(PREFIX + ".service.calls",
+                tags(appId, env).and("operation", operation, "outcome", outcome)));
+        }
+    }
+
+    /**
+     * Counts a lookup result into {@code blendberry.lookup.outcomes}.
+     *
+     * @param appId  the application ID of the lookup.
+     * @param env    the environment of the lookup.
+     * @param status the {@link ConfigStatus} returned to the client.
+     */
+    public void countLookup(String appId, String env, int status) {
+        registry.counter(PREFIX + ".lookup.outcomes", tags(appId, env).and("outcome", lookupOutcome(status)))
+            .increment();
+    }
+
+    /**
+     * Records the size of a served config body into {@code blendberry.config.payload.size}.
+     *
+     * @param appId    the application ID of the config.
+     * @param env      the environment of the config.
+     * @param encoding the content encoding of the body.
+     * @param bytes    the body size.
+     */
+    public void recordPayloadSize(String appId, String env, String encoding, long bytes) {
+        DistributionSummary.builder(PREFIX + ".config.payload.size")
+            .baseUnit("bytes")
+            .tags(tags(appId, env).and("encoding", encoding))
+            .register(registry)
+            .record(bytes);
+    }
+
+    /**
+     * Returns a callback counting into {@code blendberry.loads.coalesced} the loads that joined a database query
+     * already in flight for the same key.
+     *
+     * @param operation the load operation name.
+     * @return the counting callback.
+     */
+    public Runnable coalescedLoadCounter(String operation) {
+        Counter counter = registry.counter(PREFIX + ".loads.coalesced", "operation", operation);
+        return counter::increment;
+    }
+
+    /**
+     * Counts an error response into {@code blendberry.errors}.
+     *
+     * @param error the error type reported to the client.
+     */
+    public void countError(String error) {
+        errorCounters.computeIfAbsent(error, type -> registry.counter(PREFIX + ".errors", "error", type)).increment();
+    }
+
+    private Tags tags(String appId, String env) {
+        Tags tags = Tags.of("env", env == null ? "none" : env);
+        return tagAppId ? tags.and("appId", appId == null ? "none" : appId) : tags;
+    }
+
+    private static String lookupOutcome(int status) {
+        return switch (status) {
+            case ConfigStatus.UP_TO_DATE -> "up_to_date";
+            case ConfigStatus.NEEDS_TO_UPDATE -> "needs_to_update";
+            case ConfigStatus.NOT_FOUND -> "not_found";
+            default -> "unknown";
+        };
+    }
+}
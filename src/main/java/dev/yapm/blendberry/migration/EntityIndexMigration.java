@@ -0,0 +1,56 @@
+package dev.yapm.blendberry.migration;
+
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes declared on the entities, in place of {@code spring.data.mongodb.auto-index-creation}.
+ *
+ * <p>The automatic index creation runs while the {@link MongoTemplate} is built and fails the startup when the
+ * database is unreachable; the indexes are instead ensured in the background on every startup, which leaves existing
+ * ones untouched.</p>
+ */
+@Slf4j
+@Component
+public class EntityIndexMigration extends StartupMigration {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final MongoMappingContext mappingContext;
+
+    @Autowired
+    public EntityIndexMigration(
+        MongoTemplate mongoTemplate,
+        MongoMappingContext mappingContext,
+        TaskScheduler scheduler,
+        BlendBerryProperties properties
+    ) {
+        super(scheduler, properties);
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+    }
+
+    @Override
+    protected void apply() {
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+        int ensured = 0;
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class))
+                continue;
+            for (IndexDefinition index : resolver.resolveIndexFor(entity.getTypeInformation())) {
+                mongoTemplate.indexOps(entity.getType()).ensureIndex(index);
+                ensured++;
+            }
+        }
+        log.info("Ensured {} entity indexes", ensured);
+    }
+}
\ No newline at end of file
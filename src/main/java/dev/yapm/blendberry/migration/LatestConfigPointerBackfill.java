@@ -0,0 +1,64 @@
+package dev.yapm.blendberry.migration;
+
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.service.LatestConfigPointerService;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Backfills the latest-version pointers of configurations stored before pointers were maintained.
+ *
+ * <p>The backfill aggregates the whole configuration collection, so it runs once per database: a marker document is
+ * written to the {@code migrations} collection when it completes, and later startups skip it. The migration is
+ * idempotent and only moves pointers forward, so replicas starting together may safely run it concurrently.
+ * Disable it with {@code blendberry.migration.backfill-latest-pointers=false}, or delete the marker to run it again.
+ * Until it has run, the latest versions of the environments without a pointer are found by sorting their versions.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    name = "blendberry.migration.backfill-latest-pointers", havingValue = "true", matchIfMissing = true
+)
+public class LatestConfigPointerBackfill extends StartupMigration {
+
+    static final String MIGRATIONS_COLLECTION = "migrations";
+
+    static final String MARKER_ID = "latest-config-pointers-backfill";
+
+    private final LatestConfigPointerService latestPointers;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public LatestConfigPointerBackfill(
+        LatestConfigPointerService latestPointers,
+        MongoTemplate mongoTemplate,
+        TaskScheduler scheduler,
+        BlendBerryProperties properties
+    ) {
+        super(scheduler, properties);
+        this.latestPointers = latestPointers;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    protected void apply() {
+        if (mongoTemplate.exists(Query.query(Criteria.where("_id").is(MARKER_ID)), MIGRATIONS_COLLECTION)) {
+            log.debug("Latest-version pointers already backfilled");
+            return;
+        }
+        int processed = latestPointers.rebuildAll();
+        mongoTemplate.save(new Document("_id", MARKER_ID).append("appliedAt", new Date()), MIGRATIONS_COLLECTION);
+        log.info("Backfilled latest-version pointers of {} environments", processed);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package dev.yapm.blendberry.migration;
+
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A change to the database applied in the background once the application is ready.
+ *
+ * <p>A replica starting while the database is unreachable must still come up and serve from its local copy, so a
+ * migration never fails the startup: an attempt failing on the database is retried after
+ * {@code blendberry.migration.retry-interval}, until one succeeds.</p>
+ */
+@Slf4j
+public abstract class StartupMigration {
+
+    private final TaskScheduler scheduler;
+
+    private final Duration retryInterval;
+
+    protected StartupMigration(TaskScheduler scheduler, BlendBerryProperties properties) {
+        this.scheduler = scheduler;
+        this.retryInterval = properties.getMigration().getRetryInterval();
+    }
+
+    /**
+     * Schedules the first attempt once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void schedule() {
+        scheduler.schedule(this::attempt, Instant.now());
+    }
+
+    /**
+     * Applies the migration, it must be idempotent as a failed attempt is retried from the start.
+     *
+     * @throws DataAccessException when the database cannot be reached.
+     */
+    protected abstract void apply();
+
+    private void attempt() {
+        try {
+            apply();
+        } catch (DataAccessException e) {
+            log.warn("{} failed, retrying in {}: {}", getClass().getSimpleName(), retryInterval, e.getMessage());
+            scheduler.schedule(this::attempt, Instant.now().plus(retryInterval));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package dev.yapm.blendberry.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Projection of a {@code RemoteConfig} holding only its identity and modification timestamp.
+ *
+ * <p>All of its fields are part of the {@code appEnvVersionModDateIndex}, so queries projecting into this type are
+ * answered from the index without reading the documents.</p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigFreshness {
+
+    private String appId;
+
+    private String env;
+
+    private String version;
+
+    private Instant lastModDate;
+}
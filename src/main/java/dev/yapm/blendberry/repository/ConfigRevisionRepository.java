@@ -0,0 +1,24 @@
+package dev.yapm.blendberry.repository;
+
+import dev.yapm.blendberry.entity.ConfigRevision;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface ConfigRevisionRepository extends MongoRepository<ConfigRevision, String> {
+
+    Optional<ConfigRevision> findByAppIdAndEnvAndVersionAndRevision(
+        String appId, String env, String version, Long revision);
+
+    Optional<ConfigRevision> findFirstByAppIdAndEnvAndVersionAndLastModDate(
+        String appId, String env, String version, Instant lastModDate);
+
+    long deleteByAppIdAndEnvAndVersion(String appId, String env, String version);
+
+    long deleteByAppIdAndEnvAndVersionAndRevisionLessThanEqual(String appId, String env, String version, Long revision);
+
+    long deleteByLastModDateBefore(Instant cutoff);
+}
\ No newline at end of file
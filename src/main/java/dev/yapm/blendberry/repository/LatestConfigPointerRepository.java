@@ -0,0 +1,13 @@
+package dev.yapm.blendberry.repository;
+
+import dev.yapm.blendberry.entity.LatestConfigPointer;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface LatestConfigPointerRepository extends MongoRepository<LatestConfigPointer, String> {
+
+    Optional<LatestConfigPointer> findByAppIdAndEnv(String appId, String env);
+}
@@ -1,15 +1,33 @@
 package dev.yapm.blendberry.repository;
 
 import dev.yapm.blendberry.entity.RemoteConfig;
+import org.springframework.data.mongodb.repository.Hint;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface RemoteConfigRepository extends MongoRepository<RemoteConfig, String> {
+public interface RemoteConfigRepository extends MongoRepository<RemoteConfig, String>, RemoteConfigRepositoryCustom {
 
+    /**
+     * Projection of the configurations served to clients, which leaves out the own values of layered ones.
+     */
+    String SERVED_FIELDS = "{ 'layer': 0 }";
+
+    @Query(fields = SERVED_FIELDS)
     Optional<RemoteConfig> findTopByAppIdAndEnvOrderByCreationDateDesc(String appId, String env);
 
+    @Query(fields = SERVED_FIELDS)
     Optional<RemoteConfig> findByAppIdAndEnvAndVersion(String appId, String env, String version);
+
+    boolean existsByAppIdAndEnvAndVersion(String appId, String env, String version);
+
+    @Hint(RemoteConfig.FRESHNESS_INDEX)
+    @Query(
+        value = "{ 'appId': ?0, 'env': ?1, 'version': ?2 }",
+        fields = "{ '_id': 0, 'appId': 1, 'env': 1, 'version': 1, 'lastModDate': 1 }"
+    )
+    Optional<ConfigFreshness> findFreshnessByAppIdAndEnvAndVersion(String appId, String env, String version);
 }
@@ -0,0 +1,156 @@
+package dev.yapm.blendberry.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.cache.ConfigSelection;
+import dev.yapm.blendberry.entity.LatestConfigPointer;
+import dev.yapm.blendberry.entity.RemoteConfig;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Repository operations that cannot be expressed as derived queries.
+ */
+public interface RemoteConfigRepositoryCustom {
+
+    /**
+     * Fetches the modification timestamp of every configuration matching one of the given keys in a single
+     * covered query.
+     *
+     * @param keys the keys to resolve.
+     * @return the freshness of the configurations found, in no particular order.
+     */
+    List<ConfigFreshness> findFreshnessByKeys(Collection<ConfigKey> keys);
+
+    /**
+     * Fetches a configuration with only the selected keys of its {@code configs} map, projected by the database.
+     *
+     * @param key       the key of the config to read.
+     * @param selection the selected keys, not {@link ConfigSelection#ALL}.
+     * @return an {@link Optional} containing the projected config, empty if no config matched.
+     */
+    Optional<RemoteConfig> findSelected(ConfigKey key, ConfigSelection selection);
+
+    /**
+     * Resolves the most recently created configuration of every app and environment.
+     *
+     * @return one unsaved {@link LatestConfigPointer} per app/env pair.
+     */
+    List<LatestConfigPointer> findLatestPerEnv();
+
+    /**
+     * Atomically replaces the configuration map of a config that is not layered and increments its revision.
+     *
+     * @param key              the key of the config to update.
+     * @param configs          the new configuration map.
+     * @param lastModDate      the new modification timestamp.
+     * @param expectedRevision the revision the config must be at, or {@code null} to update unconditionally.
+     * @return an {@link Optional} containing the updated config, empty if no config matched or it is layered.
+     */
+    Optional<RemoteConfig> updateConfigs(
+        ConfigKey key, Map<String, Object> configs, Instant lastModDate, Long expectedRevision);
+
+    /**
+     * Fetches a configuration including the own values of a layered one, which the derived queries leave out.
+     *
+     * @param key the key of the config to read.
+     * @return an {@link Optional} containing the config, empty if no config matched.
+     */
+    Optional<RemoteConfig> findWithLayer(ConfigKey key);
+
+    /**
+     * Fetches the configurations directly layered on another one, including their own values.
+     *
+     * @param parent the key of the parent config.
+     * @return the child configurations.
+     */
+    List<RemoteConfig> findChildren(ConfigKey parent);
+
+    /**
+     * Tells whether any configuration is layered on the given one.
+     *
+     * @param parent the key of the parent config.
+     * @return {@code true} if the config has at least one child.
+     */
+    boolean hasChildren(ConfigKey parent);
+
+    /**
+     * Flags configurations as having children, so their updates rebuild the views layered on them.
+     *
+     * @param parents the keys of the parent configs, missing ones are ignored.
+     */
+    void markInherited(Collection<ConfigKey> parents);
+
+    /**
+     * Removes the inherited flag of a configuration whose children are gone.
+     *
+     * @param key the key of the config.
+     * @return {@code true} if the config was flagged.
+     */
+    boolean clearInherited(ConfigKey key);
+
+    /**
+     * Tells which of the given configurations other configurations are layered on, in a single query.
+     *
+     * @param keys the keys of the candidate parents.
+     * @return the keys among {@code keys} having at least one child.
+     */
+    Set<ConfigKey> findParentsAmong(Collection<ConfigKey> keys);
+
+    /**
+     * Atomically replaces the own values and the merged view of a layered config and increments its revision.
+     *
+     * @param key              the key of the config to update.
+     * @param layer            the own values of the config.
+     * @param configs          the merged view of the parent and the layer.
+     * @param lastModDate      the new modification timestamp.
+     * @param expectedRevision the revision the config must be at.
+     * @return an {@link Optional} containing the updated config, empty if no config matched.
+     */
+    Optional<RemoteConfig> updateLayer(
+        ConfigKey key, Map<String, Object> layer, Map<String, Object> configs, Instant lastModDate,
+        long expectedRevision);
+
+    /**
+     * Atomically removes a config, unless it is flagged as inherited.
+     *
+     * @param key              the key of the config to delete.
+     * @param expectedRevision the revision the config must be at, or {@code null} to delete unconditionally.
+     * @return an {@link Optional} containing the deleted config, empty if no config matched.
+     */
+    Optional<RemoteConfig> deleteByKey(ConfigKey key, Long expectedRevision);
+
+    /**
+     * Streams the configurations of an app, or of every app, from a database cursor.
+     * The returned stream must be closed to release the cursor.
+     *
+     * @param appId the application identifier, or {@code null} for all configurations.
+     * @return a lazily populated stream of configurations.
+     */
+    Stream<RemoteConfig> streamAll(String appId);
+
+    /**
+     * Streams the configurations modified strictly after the given instant, from a database cursor.
+     * The returned stream must be closed to release the cursor.
+     *
+     * @param since the exclusive lower bound of {@code lastModDate}.
+     * @return a lazily populated stream of configurations.
+     */
+    Stream<RemoteConfig> streamModifiedSince(Instant since);
+
+    /**
+     * Inserts or replaces configurations by their (appId, env, version) key in one unordered bulk write.
+     * The revision of replaced configurations is incremented.
+     *
+     * @param configs the configurations to write.
+     * @return the result of the bulk write.
+     * @throws org.springframework.data.mongodb.BulkOperationException if some of the writes failed.
+     */
+    BulkWriteResult upsertAll(List<RemoteConfig> configs);
+}
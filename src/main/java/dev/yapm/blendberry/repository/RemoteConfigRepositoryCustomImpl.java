@@ -0,0 +1,230 @@
+package dev.yapm.blendberry.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.cache.ConfigSelection;
+import dev.yapm.blendberry.entity.LatestConfigPointer;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * {@link MongoTemplate} based implementation of {@link RemoteConfigRepositoryCustom}.
+ */
+public class RemoteConfigRepositoryCustomImpl implements RemoteConfigRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public RemoteConfigRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<ConfigFreshness> findFreshnessByKeys(Collection<ConfigKey> keys) {
+        if (keys.isEmpty())
+            return List.of();
+        Criteria[] matchers = keys.stream()
+            .map(key -> Criteria.where("appId").is(key.appId())
+                .and("env").is(key.env())
+                .and("version").is(key.version()))
+            .toArray(Criteria[]::new);
+        Query query = Query.query(new Criteria().orOperator(matchers)).withHint(RemoteConfig.FRESHNESS_INDEX);
+        query.fields().include("appId", "env", "version", "lastModDate").exclude("_id");
+        return mongoTemplate.find(query, ConfigFreshness.class, mongoTemplate.getCollectionName(RemoteConfig.class));
+    }
+
+    @Override
+    public Optional<RemoteConfig> findSelected(ConfigKey key, ConfigSelection selection) {
+        return Optional.ofNullable(mongoTemplate.findOne(selecting(key, selection), RemoteConfig.class));
+    }
+
+    @Override
+    public List<LatestConfigPointer> findLatestPerEnv() {
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.sort(Sort.by(Sort.Order.asc("appId"), Sort.Order.asc("env"), Sort.Order.desc("creationDate"))),
+            Aggregation.group("appId", "env")
+                .first("version").as("version")
+                .first("creationDate").as("creationDate"),
+            Aggregation.project("appId", "env", "version", "creationDate").andExclude("_id")
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        return mongoTemplate.aggregate(aggregation, RemoteConfig.class, LatestConfigPointer.class).getMappedResults();
+    }
+
+    @Override
+    public Optional<RemoteConfig> updateConfigs(
+        ConfigKey key, Map<String, Object> configs, Instant lastModDate, Long expectedRevision
+    ) {
+        Update update = Update.update("configs", configs)
+            .set("lastModDate", lastModDate)
+            .inc("revision", 1);
+        return Optional.ofNullable(mongoTemplate.findAndModify(unlayered(matching(key, expectedRevision)), update,
+            FindAndModifyOptions.options().returnNew(true), RemoteConfig.class));
+    }
+
+    @Override
+    public Optional<RemoteConfig> findWithLayer(ConfigKey key) {
+        return Optional.ofNullable(mongoTemplate.findOne(matching(key, null), RemoteConfig.class));
+    }
+
+    @Override
+    public List<RemoteConfig> findChildren(ConfigKey parent) {
+        return mongoTemplate.find(childrenOf(parent), RemoteConfig.class);
+    }
+
+    @Override
+    public boolean hasChildren(ConfigKey parent) {
+        return mongoTemplate.exists(childrenOf(parent), RemoteConfig.class);
+    }
+
+    @Override
+    public void markInherited(Collection<ConfigKey> parents) {
+        if (parents.isEmpty())
+            return;
+        Criteria[] keys = parents.stream()
+            .map(key -> Criteria.where("appId").is(key.appId())
+                .and("env").is(key.env())
+                .and("version").is(key.version()))
+            .toArray(Criteria[]::new);
+        mongoTemplate.updateMulti(Query.query(new Criteria().orOperator(keys)), Update.update("inherited", true),
+            RemoteConfig.class);
+    }
+
+    @Override
+    public boolean clearInherited(ConfigKey key) {
+        Query query = matching(key, null).addCriteria(Criteria.where("inherited").is(true));
+        return mongoTemplate.updateFirst(query, Update.update("inherited", false), RemoteConfig.class)
+            .getModifiedCount() > 0;
+    }
+
+    @Override
+    public Set<ConfigKey> findParentsAmong(Collection<ConfigKey> keys) {
+        if (keys.isEmpty())
+            return Set.of();
+        // Matching each field against the values of every key over-selects, the exact pairs are kept below.
+        Query query = Query.query(Criteria.where("appId").in(keys.stream().map(ConfigKey::appId).distinct().toList())
+            .and("parent.env").in(keys.stream().map(ConfigKey::env).distinct().toList())
+            .and("parent.version").in(keys.stream().map(ConfigKey::version).distinct().toList()));
+        query.fields().include("appId", "parent").exclude("_id");
+        Set<ConfigKey> candidates = new HashSet<>(keys);
+        Set<ConfigKey> parents = new HashSet<>();
+        for (RemoteConfig child : mongoTemplate.find(query, RemoteConfig.class)) {
+            ConfigKey parent = new ConfigKey(child.getAppId(), child.getParent().getEnv(),
+                child.getParent().getVersion());
+            if (candidates.contains(parent))
+                parents.add(parent);
+        }
+        return parents;
+    }
+
+    @Override
+    public Optional<RemoteConfig> updateLayer(
+        ConfigKey key, Map<String, Object> layer, Map<String, Object> configs, Instant lastModDate,
+        long expectedRevision
+    ) {
+        Update update = Update.update("layer", layer)
+            .set("configs", configs)
+            .set("lastModDate", lastModDate)
+            .inc("revision", 1);
+        return Optional.ofNullable(mongoTemplate.findAndModify(matching(key, expectedRevision), update,
+            FindAndModifyOptions.options().returnNew(true), RemoteConfig.class));
+    }
+
+    @Override
+    public Optional<RemoteConfig> deleteByKey(ConfigKey key, Long expectedRevision) {
+        return Optional.ofNullable(mongoTemplate.findAndRemove(unused(matching(key, expectedRevision)),
+            RemoteConfig.class));
+    }
+
+    @Override
+    public Stream<RemoteConfig> streamAll(String appId) {
+        Query query = appId == null ? new Query() : Query.query(Criteria.where("appId").is(appId));
+        return mongoTemplate.stream(query, RemoteConfig.class);
+    }
+
+    @Override
+    public Stream<RemoteConfig> streamModifiedSince(Instant since) {
+        return mongoTemplate.stream(Query.query(Criteria.where("lastModDate").gt(since)), RemoteConfig.class);
+    }
+
+    @Override
+    public BulkWriteResult upsertAll(List<RemoteConfig> configs) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RemoteConfig.class);
+        for (RemoteConfig config : configs) {
+            Update update = Update.update("configs", config.getConfigs())
+                .set("parent", config.getParent())
+                .set("layer", config.getLayer())
+                .set("creationDate", config.getCreationDate())
+                .set("lastModDate", config.getLastModDate())
+                .inc("revision", 1);
+            bulk.upsert(matching(ConfigKey.of(config), null), update);
+        }
+        return bulk.execute();
+    }
+
+    /**
+     * Builds the query reading a config by key with a projection of the selected keys only, so the rest of the
+     * {@code configs} map is neither sent by the database nor deserialized.
+     */
+    static Query selecting(ConfigKey key, ConfigSelection selection) {
+        Query query = matching(key, null);
+        query.fields().include("appId", "env", "version", "parent", "creationDate", "lastModDate", "revision");
+        for (String path : selection.fieldPaths())
+            query.fields().include(path);
+        return query;
+    }
+
+    /**
+     * Restricts a query to configs that are not layered, whose {@code configs} can be replaced as is.
+     */
+    static Query unlayered(Query query) {
+        return query.addCriteria(Criteria.where("parent").is(null));
+    }
+
+    /**
+     * Restricts a query to configs not flagged as inherited, so no config is removed from under its children.
+     */
+    static Query unused(Query query) {
+        return query.addCriteria(Criteria.where("inherited").ne(true));
+    }
+
+    private static Query childrenOf(ConfigKey parent) {
+        return Query.query(Criteria.where("appId").is(parent.appId())
+            .and("parent.env").is(parent.env())
+            .and("parent.version").is(parent.version()));
+    }
+
+    /**
+     * Builds the query matching a config by key, and by revision if one is expected.
+     */
+    static Query matching(ConfigKey key, Long expectedRevision) {
+        Criteria criteria = Criteria.where("appId").is(key.appId())
+            .and("env").is(key.env())
+            .and("version").is(key.version());
+        if (expectedRevision != null) {
+            // Documents stored before revisions existed have no counter and are considered at revision 0.
+            criteria = expectedRevision == 0
+                ? criteria.and("revision").in(Arrays.asList(0L, null))
+                : criteria.and("revision").is(expectedRevision);
+        }
+        return Query.query(criteria);
+    }
+}
@@ -0,0 +1,298 @@
+package dev.yapm.blendberry.service;
+
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.cache.RemoteConfigCache;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.ConfigParent;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.exception.InvalidConfigLayerException;
+import dev.yapm.blendberry.exception.RemoteConfigConflictException;
+import dev.yapm.blendberry.exception.RemoteConfigInUseException;
+import dev.yapm.blendberry.repository.RemoteConfigRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Resolves configurations layered on a parent, such as a {@code prod-eu} environment overriding a few keys of a
+ * shared {@code prod} base.
+ *
+ * <p>Resolution happens on writes only. The deep merge of the parent view and the own values of a configuration is
+ * stored as its {@code configs}, so serving a layered configuration is the same single lookup as serving any other.
+ * When a configuration changes, the merged views of its descendants, and of nothing else, are rebuilt and published
+ * as changes of their own.</p>
+ *
+ * <p>Every view is written conditionally on the revision it was computed from, so a rebuild racing with a direct
+ * update of the same configuration is retried instead of overwriting it.</p>
+ */
+@Slf4j
+@Service
+public class ConfigLayerService {
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final RemoteConfigRepository repository;
+
+    private final RemoteConfigCache cache;
+
+    private final ConfigRevisionService revisions;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BlendBerryProperties.Layering settings;
+
+    @Autowired
+    public ConfigLayerService(
+        RemoteConfigRepository repository,
+        RemoteConfigCache cache,
+        ConfigRevisionService revisions,
+        ApplicationEventPublisher eventPublisher,
+        BlendBerryProperties properties
+    ) {
+        this.repository = repository;
+        this.cache = cache;
+        this.revisions = revisions;
+        this.eventPublisher = eventPublisher;
+        this.settings = properties.getLayering();
+    }
+
+    /**
+     * Resolves the merged view of a configuration about to be saved.
+     *
+     * <p>A layered configuration posted without a {@code layer} has its {@code configs} taken as its own values. Its
+     * parent is flagged as inherited the first time a child is layered on it. The configuration itself is saved
+     * unflagged without looking for children: a parent must exist to be layered on, so only an import can write
+     * children first, and it flags their parent once that is imported too.</p>
+     *
+     * @param config the configuration to save, updated in place.
+     * @return the same configuration, ready to be saved.
+     * @throws InvalidConfigLayerException if the parent does not exist, the configuration would inherit from itself,
+     * or the chain of parents is deeper than allowed.
+     */
+    public RemoteConfig prepare(RemoteConfig config) {
+        normalize(config);
+        if (config.getParent() == null)
+            return config;
+        RemoteConfig parent = checkAncestry(ConfigKey.of(config), config.getParent());
+        config.setConfigs(merge(parent.getConfigs(), config.getLayer()));
+        if (!parent.isInherited())
+            repository.markInherited(List.of(ConfigKey.of(parent)));
+        return config;
+    }
+
+    /**
+     * Makes the {@code layer} of a configuration consistent with its {@code parent}, without resolving anything.
+     *
+     * @param config the configuration, updated in place.
+     */
+    public void normalize(RemoteConfig config) {
+        if (config.getParent() == null)
+            config.setLayer(null);
+        else if (config.getLayer() == null)
+            config.setLayer(config.getConfigs());
+    }
+
+    /**
+     * Replaces the own values of a layered configuration and stores its new merged view.
+     *
+     * <p>Without an expected revision, the update is retried if the configuration changes between the read of its
+     * parent and the write.</p>
+     *
+     * @param key              the key of the configuration to update.
+     * @param layer            the new own values.
+     * @param lastModDate      the new modification timestamp.
+     * @param expectedRevision the revision the config must be at, or {@code null} to update unconditionally.
+     * @return an {@link Optional} containing the updated config, empty if no layered config matched.
+     * @throws RemoteConfigConflictException if the configuration kept changing concurrently.
+     */
+    public Optional<RemoteConfig> updateLayer(
+        ConfigKey key, Map<String, Object> layer, Instant lastModDate, Long expectedRevision
+    ) {
+        long revision = 0;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Optional<RemoteConfig> current = repository.findByAppIdAndEnvAndVersion(key.appId(), key.env(),
+                key.version());
+            if (current.isEmpty() || current.get().getParent() == null)
+                return Optional.empty();
+            revision = revisionOf(current.get());
+            if (expectedRevision != null && expectedRevision != revision)
+                return Optional.empty();
+            Map<String, Object> merged = merge(parentView(key, current.get().getParent()), layer);
+            Optional<RemoteConfig> updated = repository.updateLayer(key, layer, merged, lastModDate, revision);
+            if (updated.isPresent() || expectedRevision != null)
+                return updated;
+        }
+        throw new RemoteConfigConflictException(key.appId(), key.env(), key.version(), revision);
+    }
+
+    /**
+     * Rebuilds the merged views of every configuration layered, directly or not, on a changed one.
+     *
+     * <p>Descendants whose view does not change are left untouched, and so are their own descendants. Configurations
+     * not flagged as inherited are not looked up for children at all.</p>
+     *
+     * @param changed the configuration that was just written, with its new {@code configs}.
+     */
+    public void rebuildDescendants(RemoteConfig changed) {
+        Deque<RemoteConfig> pending = new ArrayDeque<>();
+        Set<ConfigKey> visited = new HashSet<>();
+        pending.add(changed);
+        visited.add(ConfigKey.of(changed));
+        while (!pending.isEmpty()) {
+            RemoteConfig parent = pending.poll();
+            if (!parent.isInherited())
+                continue;
+            for (RemoteConfig child : repository.findChildren(ConfigKey.of(parent))) {
+                if (visited.add(ConfigKey.of(child)))
+                    rebuild(child, parent.getConfigs()).ifPresent(pending::add);
+            }
+        }
+    }
+
+    /**
+     * Recomputes the merged view of a configuration written without resolution, such as an imported one, and those
+     * of its descendants.
+     *
+     * @param key the key of the configuration.
+     */
+    public void refresh(ConfigKey key) {
+        Optional<RemoteConfig> config = repository.findWithLayer(key);
+        if (config.isEmpty())
+            return;
+        RemoteConfig current = config.get();
+        if (current.getParent() != null)
+            current = rebuild(current, parentView(key, current.getParent())).orElse(current);
+        rebuildDescendants(current);
+    }
+
+    /**
+     * Clears the inherited flag of a configuration whose delete matched nothing, as deletes skip flagged ones.
+     *
+     * <p>The flag is kept when the last child goes away, so a flagged configuration without children is released
+     * for the delete to be retried. A child layered on it meanwhile is resolved against an empty parent view, like
+     * one whose parent was removed behind its back.</p>
+     *
+     * @param key the key of the configuration to delete.
+     * @return {@code true} if the flag was cleared and the delete may be retried.
+     * @throws RemoteConfigInUseException if the configuration has children.
+     */
+    public boolean releaseUnused(ConfigKey key) {
+        if (repository.hasChildren(key))
+            throw new RemoteConfigInUseException(key.appId(), key.env(), key.version());
+        return repository.clearInherited(key);
+    }
+
+    /**
+     * Deep-merges the own values of a configuration over the view of its parent.
+     *
+     * <p>Nested maps are merged key by key, any other value, lists included, replaces the inherited one, and a
+     * {@code null} value removes the inherited key.</p>
+     *
+     * @param base  the view of the parent, possibly {@code null}.
+     * @param layer the own values, possibly {@code null}.
+     * @return a new map holding the merged view.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> merge(Map<String, Object> base, Map<String, Object> layer) {
+        Map<String, Object> merged = base == null ? new LinkedHashMap<>() : new LinkedHashMap<>(base);
+        if (layer == null)
+            return merged;
+        for (Map.Entry<String, Object> entry : layer.entrySet()) {
+            Object value = entry.getValue();
+            Object inherited = merged.get(entry.getKey());
+            if (value == null)
+                merged.remove(entry.getKey());
+            else if (value instanceof Map<?, ?> own && inherited instanceof Map<?, ?> parentValue)
+                merged.put(entry.getKey(), merge((Map<String, Object>) parentValue, (Map<String, Object>) own));
+            else
+                merged.put(entry.getKey(), value);
+        }
+        return merged;
+    }
+
+    /**
+     * Stores the merged view of a child computed from the given parent view, re-reading the child on conflicts.
+     *
+     * @return the rebuilt child, empty if its view did not change or it could not be written.
+     */
+    private Optional<RemoteConfig> rebuild(RemoteConfig child, Map<String, Object> parentView) {
+        ConfigKey key = ConfigKey.of(child);
+        RemoteConfig current = child;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Map<String, Object> merged = merge(parentView, current.getLayer());
+            if (merged.equals(current.getConfigs()))
+                return Optional.empty();
+            Optional<RemoteConfig> updated = repository.updateLayer(key, current.getLayer(), merged, Instant.now(),
+                revisionOf(current));
+            if (updated.isPresent()) {
+                RemoteConfig rebuilt = updated.get();
+                revisions.record(rebuilt);
+                cache.invalidate(key);
+                eventPublisher.publishEvent(new RemoteConfigChangedEvent(key, rebuilt.getLastModDate(), false));
+                return updated;
+            }
+            Optional<RemoteConfig> reread = repository.findWithLayer(key);
+            if (reread.isEmpty())
+                return Optional.empty();
+            current = reread.get();
+        }
+        log.warn("Gave up rebuilding the merged view of config {} after {} attempts", key, MAX_ATTEMPTS);
+        return Optional.empty();
+    }
+
+    /**
+     * Walks up the parents of a configuration to make sure it can be layered on them.
+     *
+     * @return the direct parent.
+     */
+    private RemoteConfig checkAncestry(ConfigKey key, ConfigParent parent) {
+        ConfigKey ancestor = new ConfigKey(key.appId(), parent.getEnv(), parent.getVersion());
+        RemoteConfig direct = null;
+        for (int depth = 1; ; depth++) {
+            if (ancestor.equals(key))
+                throw new InvalidConfigLayerException(key.appId(), key.env(), key.version(),
+                    "it would inherit from itself");
+            if (depth > settings.getMaxDepth())
+                throw new InvalidConfigLayerException(key.appId(), key.env(), key.version(),
+                    "more than " + settings.getMaxDepth() + " ancestors");
+            Optional<RemoteConfig> found = repository.findByAppIdAndEnvAndVersion(ancestor.appId(), ancestor.env(),
+                ancestor.version());
+            if (found.isEmpty()) {
+                if (direct == null)
+                    throw new InvalidConfigLayerException(key.appId(), key.env(), key.version(),
+                        "env=" + ancestor.env() + ", version=" + ancestor.version() + " does not exist");
+                return direct;
+            }
+            if (direct == null)
+                direct = found.get();
+            if (found.get().getParent() == null)
+                return direct;
+            ancestor = new ConfigKey(key.appId(), found.get().getParent().getEnv(),
+                found.get().getParent().getVersion());
+        }
+    }
+
+    /**
+     * Reads the view a configuration inherits, which is empty if its parent was removed behind its back.
+     */
+    private Map<String, Object> parentView(ConfigKey key, ConfigParent parent) {
+        return repository.findByAppIdAndEnvAndVersion(key.appId(), parent.getEnv(), parent.getVersion())
+            .map(RemoteConfig::getConfigs)
+            .orElse(null);
+    }
+
+    private static long revisionOf(RemoteConfig config) {
+        return config.getRevision() == null ? 0 : config.getRevision();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package dev.yapm.blendberry.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * RFC 7386 merge patch turning a past state of a configuration into its current representation.
+ *
+ * @param baseRevision the revision of the state the patch applies to.
+ * @param patch        the merge patch.
+ */
+public record ConfigPatch(long baseRevision, JsonNode patch) {
+}
\ No newline at end of file
@@ -0,0 +1,222 @@
+package dev.yapm.blendberry.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.ConfigRevision;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.metrics.RemoteConfigMetrics;
+import dev.yapm.blendberry.repository.ConfigRevisionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Keeps the append-only revision history of every configuration and computes merge patches from it.
+ *
+ * <p>A state is appended on every save and update. Only the newest {@code max-revisions} states of a configuration
+ * are kept, which is enforced in the background after every append, and states older than {@code max-age} are
+ * compacted away in the background too. Clients whose base state is gone simply get the full document again.</p>
+ *
+ * <p>History writes are best effort: a failed append only costs its clients a full download, so it never fails the
+ * configuration write itself.</p>
+ */
+@Slf4j
+@Service
+public class ConfigRevisionService {
+
+    private final ConfigRevisionRepository repository;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final TaskScheduler scheduler;
+
+    private final RemoteConfigMetrics metrics;
+
+    private final BlendBerryProperties.History settings;
+
+    @Autowired
+    public ConfigRevisionService(
+        ConfigRevisionRepository repository,
+        MongoTemplate mongoTemplate,
+        ObjectMapper objectMapper,
+        TaskScheduler scheduler,
+        RemoteConfigMetrics metrics,
+        BlendBerryProperties properties
+    ) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+        this.settings = properties.getHistory();
+    }
+
+    /**
+     * Appends the current state of a configuration to its history and schedules the pruning of the states beyond the
+     * retained count.
+     *
+     * @param config the configuration that was just written.
+     */
+    public void record(RemoteConfig config) {
+        if (!settings.isEnabled())
+            return;
+        ConfigRevision revision = ConfigRevision.of(config);
+        try {
+            // Replacing by revision overwrites what a deleted and re-created configuration may have left behind.
+            Query sameRevision = Query.query(Criteria.where("appId").is(revision.getAppId())
+                .and("env").is(revision.getEnv())
+                .and("version").is(revision.getVersion())
+                .and("revision").is(revision.getRevision()));
+            mongoTemplate.findAndReplace(sameRevision, revision, FindAndReplaceOptions.options().upsert());
+        } catch (DataAccessException e) {
+            log.warn("Could not record revision {} of config {}", revision.getRevision(), ConfigKey.of(config), e);
+            return;
+        }
+        // Pruning is not needed to serve the new state, so it is kept off the write path.
+        scheduler.schedule(() -> prune(ConfigKey.of(config), revision.getRevision()), Instant.now());
+    }
+
+    /**
+     * Drops the history of a deleted configuration.
+     *
+     * @param key the key of the deleted configuration.
+     */
+    public void forget(ConfigKey key) {
+        if (!settings.isEnabled())
+            return;
+        try {
+            repository.deleteByAppIdAndEnvAndVersion(key.appId(), key.env(), key.version());
+        } catch (DataAccessException e) {
+            log.warn("Could not drop the history of config {}", key, e);
+        }
+    }
+
+    /**
+     * Tells whether a client copy, identified by its version and its revision or modification date, is the current
+     * configuration.
+     *
+     * <p>Revisions are counted per version, so a copy of another version, or of an unknown one such as
+     * {@code latest}, is never current.</p>
+     *
+     * @param current      the current configuration.
+     * @param baseVersion  the version of the client copy.
+     * @param baseRevision the revision of the client copy, or {@code null}.
+     * @param baseModDate  the modification date of the client copy, or {@code null}.
+     * @return {@code true} if the client copy is up to date.
+     */
+    public boolean isCurrent(RemoteConfig current, String baseVersion, Long baseRevision, Instant baseModDate) {
+        if (!Objects.equals(current.getVersion(), baseVersion))
+            return false;
+        if (baseRevision != null)
+            return baseRevision.equals(revisionOf(current));
+        return baseModDate != null
+            && truncate(baseModDate).equals(truncate(current.getLastModDate()));
+    }
+
+    /**
+     * Computes the RFC 7386 merge patch turning a client copy into the current representation of a configuration.
+     *
+     * <p>The patch applies to the whole JSON representation served by {@code GET /configs/{env}}, so it also updates
+     * {@code lastModDate} and {@code revision}.</p>
+     *
+     * @param current      the current configuration.
+     * @param baseVersion  the version of the client copy.
+     * @param baseRevision the revision of the client copy, or {@code null} to find it by modification date.
+     * @param baseModDate  the modification date of the client copy, used if no revision is given.
+     * @return an {@link Optional} containing the patch, empty if the base state is unknown, of another version,
+     * compacted away or not reachable with a merge patch, in which case the full document must be sent.
+     */
+    public Optional<ConfigPatch> mergePatch(
+        RemoteConfig current, String baseVersion, Long baseRevision, Instant baseModDate
+    ) {
+        if (!settings.isEnabled() || !Objects.equals(current.getVersion(), baseVersion))
+            return Optional.empty();
+        return metrics.time("mergePatch", current.getAppId(), current.getEnv(), () -> {
+            Optional<ConfigRevision> base;
+            try {
+                base = findBase(current, baseRevision, baseModDate);
+            } catch (DataAccessException e) {
+                return Optional.empty();
+            }
+            return base
+                // A configuration re-created after a delete restarts its revisions, which must not be mixed up.
+                .filter(found -> Objects.equals(found.getCreationDate(), current.getCreationDate()))
+                .flatMap(found -> JsonMergePatch.diff(
+                        objectMapper.valueToTree(found.toRemoteConfig()), objectMapper.valueToTree(current))
+                    .map(patch -> new ConfigPatch(found.getRevision(), patch)));
+        });
+    }
+
+    /**
+     * Starts the background compaction once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleCompaction() {
+        if (settings.isEnabled())
+            scheduler.scheduleWithFixedDelay(this::compact, Instant.now(), settings.getCompactionInterval());
+    }
+
+    /**
+     * Removes the states older than the retention age.
+     *
+     * @return the number of states removed.
+     */
+    public long compact() {
+        try {
+            long removed = repository.deleteByLastModDateBefore(Instant.now().minus(settings.getMaxAge()));
+            if (removed > 0)
+                log.info("Compacted {} config revisions older than {}", removed, settings.getMaxAge());
+            return removed;
+        } catch (DataAccessException e) {
+            log.warn("Could not compact config revisions", e);
+            return 0;
+        }
+    }
+
+    private void prune(ConfigKey key, long newestRevision) {
+        try {
+            repository.deleteByAppIdAndEnvAndVersionAndRevisionLessThanEqual(key.appId(), key.env(), key.version(),
+                newestRevision - settings.getMaxRevisions());
+        } catch (DataAccessException e) {
+            log.warn("Could not prune the revisions of config {}", key, e);
+        }
+    }
+
+    private Optional<ConfigRevision> findBase(RemoteConfig current, Long baseRevision, Instant baseModDate) {
+        if (baseRevision != null)
+            return repository.findByAppIdAndEnvAndVersionAndRevision(
+                current.getAppId(), current.getEnv(), current.getVersion(), baseRevision);
+        if (baseModDate != null)
+            return repository.findFirstByAppIdAndEnvAndVersionAndLastModDate(
+                current.getAppId(), current.getEnv(), current.getVersion(), truncate(baseModDate));
+        return Optional.empty();
+    }
+
+    private static long revisionOf(RemoteConfig config) {
+        return config.getRevision() == null ? 0 : config.getRevision();
+    }
+
+    /**
+     * Dates are stored with millisecond precision, while clients may echo the finer one of a write response.
+     */
+    private static Instant truncate(Instant instant) {
+        return instant.truncatedTo(ChronoUnit.MILLIS);
+    }
+}
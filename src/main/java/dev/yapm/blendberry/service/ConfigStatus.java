@@ -18,5 +18,11 @@ public class ConfigStatus {
      */
     public static final int NEEDS_TO_UPDATE = 1;
 
+    /**
+     * Indicates that no remote configuration matched the client's app ID, environment, and version.
+     * Only reported by batch lookups, single lookups answer with a 404 instead.
+     */
+    public static final int NOT_FOUND = 2;
+
     private ConfigStatus() {}
 }
\ No newline at end of file
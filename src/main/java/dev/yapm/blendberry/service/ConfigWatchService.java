@@ -0,0 +1,217 @@
+package dev.yapm.blendberry.service;
+
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.exception.RemoteConfigNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parks clients waiting for a configuration to change and wakes them when {@link RemoteConfigService} publishes a
+ * {@link RemoteConfigChangedEvent}.
+ *
+ * <p>Watches are backed by servlet async requests ({@link DeferredResult} and {@link SseEmitter}), so a parked
+ * client holds no request thread while it waits.</p>
+ */
+@Service
+public class ConfigWatchService {
+
+    private final RemoteConfigService remoteConfigService;
+
+    private final BlendBerryProperties.Watch settings;
+
+    private final Map<ConfigKey, Set<Watcher>> watchers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ConfigWatchService(RemoteConfigService remoteConfigService, BlendBerryProperties properties) {
+        this.remoteConfigService = remoteConfigService;
+        this.settings = properties.getWatch();
+    }
+
+    /**
+     * Holds a long-poll request until the configuration differs from the client's copy or the timeout elapses.
+     *
+     * @param appId       the application ID.
+     * @param env         the environment.
+     * @param version     the version to watch.
+     * @param lastModDate the client's last modification date (ISO-8601 format).
+     * @param timeout     how long to wait, or {@code null} for the configured default.
+     * @return a deferred status: {@code NEEDS_TO_UPDATE} as soon as a change is seen, {@code UP_TO_DATE} on timeout.
+     * @throws RemoteConfigNotFoundException if the configuration does not exist.
+     */
+    public DeferredResult<ResponseEntity<Integer>> watch(
+        String appId, String env, String version, String lastModDate, Duration timeout
+    ) {
+        ConfigKey key = new ConfigKey(appId, env, version);
+        Instant clientModDate = Instant.parse(lastModDate);
+        DeferredResult<ResponseEntity<Integer>> result = new DeferredResult<>(
+            resolveTimeout(timeout, settings.getDefaultTimeout()).toMillis(),
+            ResponseEntity.ok(ConfigStatus.UP_TO_DATE));
+        LongPollWatcher watcher = new LongPollWatcher(result, clientModDate);
+        result.onCompletion(() -> unregister(key, watcher));
+
+        // Register before checking, so a write landing in between is not missed.
+        register(key, watcher);
+        if (currentStatus(key, lastModDate, watcher) == ConfigStatus.NEEDS_TO_UPDATE)
+            result.setResult(ResponseEntity.ok(ConfigStatus.NEEDS_TO_UPDATE));
+        return result;
+    }
+
+    /**
+     * Opens a Server-Sent Events stream that emits a {@code status} event every time the configuration changes.
+     *
+     * <p>The current status is sent first. A {@code deleted} event is sent and the stream is closed if the
+     * configuration is removed.</p>
+     *
+     * @param appId       the application ID.
+     * @param env         the environment.
+     * @param version     the version to watch.
+     * @param lastModDate the client's last modification date (ISO-8601 format).
+     * @param timeout     how long the stream is kept open, or {@code null} for the configured maximum.
+     * @return the event stream.
+     * @throws RemoteConfigNotFoundException if the configuration does not exist.
+     */
+    public SseEmitter stream(String appId, String env, String version, String lastModDate, Duration timeout) {
+        ConfigKey key = new ConfigKey(appId, env, version);
+        SseEmitter emitter = new SseEmitter(resolveTimeout(timeout, settings.getMaxTimeout()).toMillis());
+        SseWatcher watcher = new SseWatcher(emitter, Instant.parse(lastModDate));
+        emitter.onCompletion(() -> unregister(key, watcher));
+        emitter.onTimeout(emitter::complete);
+
+        register(key, watcher);
+        watcher.send(currentStatus(key, lastModDate, watcher));
+        return emitter;
+    }
+
+    /**
+     * Wakes every watcher of the changed configuration.
+     *
+     * @param event the change published by {@link RemoteConfigService}.
+     */
+    @Async
+    @EventListener
+    public void onConfigChanged(RemoteConfigChangedEvent event) {
+        Set<Watcher> keyWatchers = watchers.get(event.key());
+        if (keyWatchers == null)
+            return;
+        keyWatchers.removeIf(watcher -> watcher.onChange(event));
+    }
+
+    /**
+     * Wakes every watcher of the configurations changed together.
+     *
+     * @param event the changes published by {@link RemoteConfigTransferService}.
+     */
+    @Async
+    @EventListener
+    public void onConfigsChanged(RemoteConfigBatchChangedEvent event) {
+        event.changes().forEach(this::onConfigChanged);
+    }
+
+    private int currentStatus(ConfigKey key, String lastModDate, Watcher watcher) {
+        try {
+            return remoteConfigService.lookup(key.appId(), key.env(), key.version(), lastModDate);
+        } catch (RuntimeException e) {
+            unregister(key, watcher);
+            throw e;
+        }
+    }
+
+    private Duration resolveTimeout(Duration requested, Duration fallback) {
+        if (requested == null || requested.isNegative() || requested.isZero())
+            return fallback;
+        return requested.compareTo(settings.getMaxTimeout()) > 0 ? settings.getMaxTimeout() : requested;
+    }
+
+    private void register(ConfigKey key, Watcher watcher) {
+        watchers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(watcher);
+    }
+
+    private void unregister(ConfigKey key, Watcher watcher) {
+        watchers.computeIfPresent(key, (k, keyWatchers) -> {
+            keyWatchers.remove(watcher);
+            return keyWatchers.isEmpty() ? null : keyWatchers;
+        });
+    }
+
+    private interface Watcher {
+
+        /**
+         * Reacts to a change of the watched configuration.
+         *
+         * @return {@code true} if the watcher is done and must be removed.
+         */
+        boolean onChange(RemoteConfigChangedEvent event);
+    }
+
+    private record LongPollWatcher(DeferredResult<ResponseEntity<Integer>> result, Instant clientModDate)
+        implements Watcher {
+
+        @Override
+        public boolean onChange(RemoteConfigChangedEvent event) {
+            ConfigKey key = event.key();
+            if (event.deleted()) {
+                result.setErrorResult(new RemoteConfigNotFoundException(key.appId(), key.env(), key.version()));
+                return true;
+            }
+            if (event.lastModDate().equals(clientModDate))
+                return false;
+            result.setResult(ResponseEntity.ok(ConfigStatus.NEEDS_TO_UPDATE));
+            return true;
+        }
+    }
+
+    private static final class SseWatcher implements Watcher {
+
+        private final SseEmitter emitter;
+
+        private volatile Instant seenModDate;
+
+        private SseWatcher(SseEmitter emitter, Instant clientModDate) {
+            this.emitter = emitter;
+            this.seenModDate = clientModDate;
+        }
+
+        @Override
+        public boolean onChange(RemoteConfigChangedEvent event) {
+            try {
+                if (event.deleted()) {
+                    emitter.send(SseEmitter.event().name("deleted").data(ConfigStatus.NEEDS_TO_UPDATE));
+                    emitter.complete();
+                    return true;
+                }
+                if (event.lastModDate().equals(seenModDate))
+                    return false;
+                seenModDate = event.lastModDate();
+                emitter.send(SseEmitter.event()
+                    .name("status")
+                    .id(event.lastModDate().toString())
+                    .data(ConfigStatus.NEEDS_TO_UPDATE));
+                return false;
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+                return true;
+            }
+        }
+
+        private void send(int status) {
+            try {
+                emitter.send(SseEmitter.event().name("status").data(status));
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
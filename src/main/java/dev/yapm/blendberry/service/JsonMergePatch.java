@@ -0,0 +1,75 @@
+package dev.yapm.blendberry.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Computes <a href="https://www.rfc-editor.org/rfc/rfc7386">RFC 7386</a> JSON merge patches.
+ *
+ * <p>Objects are diffed member by member, while any other changed value, arrays included, is replaced as a whole.
+ * A merge patch cannot set a member to {@code null}, as {@code null} means removal, so targets holding such members
+ * where they differ from the source have no patch.</p>
+ */
+final class JsonMergePatch {
+
+    private JsonMergePatch() {}
+
+    /**
+     * Computes the merge patch turning one document into another.
+     *
+     * @param source the document the patch is applied to.
+     * @param target the document the patch must produce.
+     * @return an {@link Optional} containing the patch, an empty object if both documents are equal, or empty if the
+     * change cannot be expressed as a merge patch.
+     */
+    static Optional<JsonNode> diff(JsonNode source, JsonNode target) {
+        if (!source.isObject() || !target.isObject())
+            return hasNullMember(target) ? Optional.empty() : Optional.of(target);
+        ObjectNode patch = JsonNodeFactory.instance.objectNode();
+        Iterator<String> names = source.fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            if (!target.has(name))
+                patch.putNull(name);
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = target.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode sourceValue = source.get(field.getKey());
+            JsonNode targetValue = field.getValue();
+            if (targetValue.equals(sourceValue))
+                continue;
+            if (targetValue.isNull())
+                return Optional.empty();
+            if (sourceValue != null && sourceValue.isObject() && targetValue.isObject()) {
+                Optional<JsonNode> nested = diff(sourceValue, targetValue);
+                if (nested.isEmpty())
+                    return Optional.empty();
+                patch.set(field.getKey(), nested.get());
+            } else if (hasNullMember(targetValue)) {
+                return Optional.empty();
+            } else {
+                patch.set(field.getKey(), targetValue);
+            }
+        }
+        return Optional.of(patch);
+    }
+
+    /**
+     * Tells whether an object holds a {@code null} member at any depth, which would be dropped when merged as is.
+     */
+    private static boolean hasNullMember(JsonNode node) {
+        if (!node.isObject())
+            return false;
+        for (JsonNode value : node) {
+            if (value.isNull() || hasNullMember(value))
+                return true;
+        }
+        return false;
+    }
+}
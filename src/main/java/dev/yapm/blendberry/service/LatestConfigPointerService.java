@@ -0,0 +1,173 @@
+package dev.yapm.blendberry.service;
+
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.LatestConfigPointer;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.repository.LatestConfigPointerRepository;
+import dev.yapm.blendberry.repository.RemoteConfigRepository;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Maintains the {@link LatestConfigPointer} of every app and environment.
+ *
+ * <p>Every pointer change is a single atomic Mongo operation, conditioned on the current pointer state, so
+ * concurrent saves and deletes cannot move a pointer backwards.</p>
+ *
+ * <p>Pointers are written after the configuration itself, without a transaction, as transactions need a replica set.
+ * They repair themselves instead: a pointer update that fails is retried in the background after
+ * {@code blendberry.local-store.outage-retry-interval} until the database takes it, and a pointer found on a version
+ * that no longer exists is moved off it by the read that found it, see {@link #repair}. A replica dying between the
+ * two writes of a save leaves the pointer on the previous version until the next save of the environment.</p>
+ */
+@Slf4j
+@Service
+public class LatestConfigPointerService {
+
+    private final LatestConfigPointerRepository pointerRepository;
+
+    private final RemoteConfigRepository configRepository;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final TaskScheduler scheduler;
+
+    private final Duration retryInterval;
+
+    @Autowired
+    public LatestConfigPointerService(
+        LatestConfigPointerRepository pointerRepository,
+        RemoteConfigRepository configRepository,
+        MongoTemplate mongoTemplate,
+        TaskScheduler scheduler,
+        BlendBerryProperties properties
+    ) {
+        this.pointerRepository = pointerRepository;
+        this.configRepository = configRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.scheduler = scheduler;
+        this.retryInterval = properties.getLocalStore().getOutageRetryInterval();
+    }
+
+    /**
+     * Resolves the latest version of an environment.
+     *
+     * @param appId the application identifier.
+     * @param env   the environment.
+     * @return an {@link Optional} containing the latest version if a pointer exists.
+     */
+    public Optional<String> resolve(String appId, String env) {
+        return pointerRepository.findByAppIdAndEnv(appId, env).map(LatestConfigPointer::getVersion);
+    }
+
+    /**
+     * Points the environment of a configuration to it, unless a more recently created one is already pointed.
+     *
+     * @param config the configuration that was just created.
+     */
+    public void advance(RemoteConfig config) {
+        retrying(() -> advance(config.getAppId(), config.getEnv(), config.getVersion(), config.getCreationDate()));
+    }
+
+    /**
+     * Moves the pointer of the environment back to the previous version if the deleted configuration was its
+     * latest one, or removes the pointer if no configuration is left.
+     *
+     * <p>Each move only applies while the pointer still references the version being retreated from. If the
+     * previous version is deleted concurrently, its own retreat finds the pointer elsewhere and does nothing, so the
+     * move is checked afterwards and retreats again from that version.</p>
+     *
+     * @param deleted the configuration that was just deleted.
+     */
+    public void retreat(RemoteConfig deleted) {
+        retrying(() -> retreat(ConfigKey.of(deleted)));
+    }
+
+    /**
+     * Moves a pointer found on a version that no longer exists to the most recently created configuration left,
+     * as {@link #retreat(RemoteConfig)} does.
+     *
+     * @param missing the key the pointer was found on.
+     */
+    public void repair(ConfigKey missing) {
+        retrying(() -> retreat(missing));
+    }
+
+    /**
+     * Recomputes the pointer of every environment from the stored configurations.
+     *
+     * <p>Used to backfill pointers for data written before they existed. Existing pointers are only moved forward.</p>
+     *
+     * @return the number of environments processed.
+     */
+    public int rebuildAll() {
+        int processed = 0;
+        for (LatestConfigPointer latest : configRepository.findLatestPerEnv()) {
+            advance(latest.getAppId(), latest.getEnv(), latest.getVersion(), latest.getCreationDate());
+            processed++;
+        }
+        return processed;
+    }
+
+    private void retreat(ConfigKey deleted) {
+        String from = deleted.version();
+        while (true) {
+            Query pointsToDeleted = Query.query(Criteria.where("appId").is(deleted.appId())
+                .and("env").is(deleted.env())
+                .and("version").is(from));
+            Optional<RemoteConfig> previous = configRepository
+                .findTopByAppIdAndEnvOrderByCreationDateDesc(deleted.appId(), deleted.env());
+            if (previous.isEmpty()) {
+                mongoTemplate.remove(pointsToDeleted, LatestConfigPointer.class);
+                return;
+            }
+            RemoteConfig config = previous.get();
+            Update moveBack = Update.update("version", config.getVersion())
+                .set("creationDate", config.getCreationDate());
+            UpdateResult moved = mongoTemplate.updateFirst(pointsToDeleted, moveBack, LatestConfigPointer.class);
+            if (moved.getMatchedCount() == 0 || configRepository.existsByAppIdAndEnvAndVersion(
+                deleted.appId(), deleted.env(), config.getVersion()))
+                return;
+            from = config.getVersion();
+        }
+    }
+
+    private void advance(String appId, String env, String version, Instant creationDate) {
+        Query olderOrSame = Query.query(Criteria.where("appId").is(appId)
+            .and("env").is(env)
+            .and("creationDate").lte(creationDate));
+        Update update = Update.update("version", version).set("creationDate", creationDate);
+        try {
+            mongoTemplate.upsert(olderOrSame, update, LatestConfigPointer.class);
+        } catch (DuplicateKeyException ignored) {
+            // The pointer already references a more recently created configuration.
+        }
+    }
+
+    /**
+     * Runs a pointer update, and retries it later if the database does not take it. Updates only apply to the
+     * pointer state they were computed for, so a late retry never undoes a more recent one.
+     */
+    private void retrying(Runnable update) {
+        try {
+            update.run();
+        } catch (DataAccessException e) {
+            log.warn("Could not update a latest-version pointer, retrying in {}", retryInterval, e);
+            scheduler.schedule(() -> retrying(update), Instant.now().plus(retryInterval));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package dev.yapm.blendberry.service;
+
+import java.util.List;
+
+/**
+ * Published once after a batch of configurations has been written together, such as a flush of a bulk import, in
+ * place of one {@link RemoteConfigChangedEvent} per configuration, so listeners can handle the whole batch at once.
+ *
+ * @param changes the changes of the batch, all made by this replica.
+ */
+public record RemoteConfigBatchChangedEvent(List<RemoteConfigChangedEvent> changes) {
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package dev.yapm.blendberry.service;
+
+import dev.yapm.blendberry.cache.ConfigKey;
+
+import java.time.Instant;
+
+/**
+ * Published after a configuration has been created, updated, or deleted, either through this replica's
+ * {@link RemoteConfigService} or, when {@code remote} is set, through another replica.
+ *
+ * @param key         the key of the changed configuration.
+ * @param lastModDate the new modification timestamp, or the last known one if the config was deleted.
+ * @param deleted     whether the configuration no longer exists.
+ * @param remote      whether the change was made by another replica and received through the invalidation bus.
+ */
+public record RemoteConfigChangedEvent(ConfigKey key, Instant lastModDate, boolean deleted, boolean remote) {
+
+    /**
+     * Creates the event of a change made by this replica.
+     */
+    public RemoteConfigChangedEvent(ConfigKey key, Instant lastModDate, boolean deleted) {
+        this(key, lastModDate, deleted, false);
+    }
+}
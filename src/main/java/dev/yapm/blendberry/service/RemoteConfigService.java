@@ -1,11 +1,29 @@
 package dev.yapm.blendberry.service;
 
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.cache.ConfigSelection;
+import dev.yapm.blendberry.cache.RemoteConfigCache;
+import dev.yapm.blendberry.cache.SingleFlight;
+import dev.yapm.blendberry.dto.LookupRequest;
+import dev.yapm.blendberry.dto.LookupResult;
 import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.fallback.LocalConfigStore;
+import dev.yapm.blendberry.exception.InvalidConfigLayerException;
+import dev.yapm.blendberry.exception.RemoteConfigConflictException;
+import dev.yapm.blendberry.exception.RemoteConfigInUseException;
 import dev.yapm.blendberry.exception.RemoteConfigNotFoundException;
+import dev.yapm.blendberry.metrics.RemoteConfigMetrics;
+import dev.yapm.blendberry.repository.ConfigFreshness;
 import dev.yapm.blendberry.repository.RemoteConfigRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -19,24 +37,83 @@ public class RemoteConfigService {
 
     private final RemoteConfigRepository repository;
 
+    private final RemoteConfigCache cache;
+
+    private final LatestConfigPointerService latestPointers;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final RemoteConfigMetrics metrics;
+
+    private final LocalConfigStore localStore;
+
+    private final ConfigRevisionService revisions;
+
+    private final ConfigLayerService layers;
+
+    private final SingleFlight<ConfigKey, Optional<RemoteConfig>> configLoads;
+
+    private final SingleFlight<ConfigKey, Optional<RemoteConfig>> latestLoads;
+
+    private final SingleFlight<ConfigKey, Optional<Instant>> freshnessLoads;
+
+    private final SingleFlight<Map.Entry<ConfigKey, ConfigSelection>, Optional<RemoteConfig>> selectionLoads;
+
     @Autowired
-    public RemoteConfigService(RemoteConfigRepository repository) {
+    public RemoteConfigService(
+        RemoteConfigRepository repository,
+        RemoteConfigCache cache,
+        LatestConfigPointerService latestPointers,
+        ApplicationEventPublisher eventPublisher,
+        RemoteConfigMetrics metrics,
+        LocalConfigStore localStore,
+        ConfigRevisionService revisions,
+        ConfigLayerService layers
+    ) {
         this.repository = repository;
+        this.cache = cache;
+        this.latestPointers = latestPointers;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+        this.localStore = localStore;
+        this.revisions = revisions;
+        this.layers = layers;
+        this.configLoads = new SingleFlight<>(metrics.coalescedLoadCounter("config"));
+        this.latestLoads = new SingleFlight<>(metrics.coalescedLoadCounter("latest"));
+        this.freshnessLoads = new SingleFlight<>(metrics.coalescedLoadCounter("freshness"));
+        this.selectionLoads = new SingleFlight<>(metrics.coalescedLoadCounter("selection"));
     }
 
     /**
      * Persists a new or updated configuration entry into the database.
      *
+     * <p>A configuration declaring a parent is stored with its merged view resolved by {@link ConfigLayerService},
+     * and the views of the configurations layered on it are rebuilt.</p>
+     *
      * @param config the RemoteConfig object to store.
      * @return the saved RemoteConfig object.
+     * @throws InvalidConfigLayerException if the declared parent cannot be layered on.
      */
     public RemoteConfig save(RemoteConfig config) {
-        return repository.save(config);
+        return metrics.time("save", config.getAppId(), config.getEnv(), () -> {
+            RemoteConfig saved = repository.save(layers.prepare(config));
+            latestPointers.advance(saved);
+            revisions.record(saved);
+            cache.invalidate(ConfigKey.of(saved));
+            cache.invalidateLatest(saved.getAppId(), saved.getEnv());
+            publishChange(saved, false);
+            layers.rebuildDescendants(saved);
+            return saved;
+        });
     }
 
     /**
      * Finds a specific configuration based on app ID, environment, and version.
-     * If version is <code>"latest"</code>, returns the most recent config by creation date for the environment.
+     * If version is <code>"latest"</code>, returns the most recent config by creation date for the environment,
+     * resolved through its {@link dev.yapm.blendberry.entity.LatestConfigPointer}.
+     * Results are served from the {@link RemoteConfigCache} when possible, and concurrent cache misses for the same
+     * key share a single database query.
+     * If the database is unreachable, the config is read from the {@link LocalConfigStore} instead.
      *
      * @param appId the application identifier.
      * @param env the environment (e.g., dev, prod).
@@ -44,9 +121,113 @@ public class RemoteConfigService {
      * @return an {@link Optional} containing the config if found.
      */
     public Optional<RemoteConfig> findOne(String appId, String env, String version) {
-        if (Objects.equals(version, "latest"))
-            return repository.findTopByAppIdAndEnvOrderByCreationDateDesc(appId, env);
-        return repository.findByAppIdAndEnvAndVersion(appId, env, version);
+        return metrics.time("findOne", appId, env, () -> {
+            try {
+                return loadOne(appId, env, version);
+            } catch (DataAccessException e) {
+                localStore.recordFailure(e);
+                Optional<RemoteConfig> stale = Objects.equals(version, "latest")
+                    ? localStore.findLatest(appId, env)
+                    : localStore.find(new ConfigKey(appId, env, version));
+                return Optional.of(stale.orElseThrow(() -> e));
+            }
+        });
+    }
+
+    /**
+     * Variant of {@link #findOne(String, String, String)} returning only the selected keys of the {@code configs} map.
+     *
+     * <p>A fully cached config is projected in memory. Otherwise the selection is pushed down to the database as a
+     * field projection, so unselected subtrees are never read, transferred, or deserialized, and the projected
+     * config is cached for that selection.</p>
+     *
+     * @param appId     the application identifier.
+     * @param env       the environment (e.g., dev, prod).
+     * @param version   the configuration version or "latest".
+     * @param selection the keys to return.
+     * @return an {@link Optional} containing the projected config if found.
+     */
+    public Optional<RemoteConfig> findOne(String appId, String env, String version, ConfigSelection selection) {
+        if (selection.isAll())
+            return findOne(appId, env, version);
+        return metrics.time("findSelected", appId, env, () -> {
+            try {
+                return loadSelected(appId, env, version, selection);
+            } catch (DataAccessException e) {
+                localStore.recordFailure(e);
+                Optional<RemoteConfig> stale = Objects.equals(version, "latest")
+                    ? localStore.findLatest(appId, env)
+                    : localStore.find(new ConfigKey(appId, env, version));
+                return Optional.of(selection.applyTo(stale.orElseThrow(() -> e)));
+            }
+        });
+    }
+
+    private Optional<RemoteConfig> loadSelected(String appId, String env, String version, ConfigSelection selection) {
+        String resolved = version;
+        if (Objects.equals(version, "latest")) {
+            Optional<String> latestVersion = cache.getLatestVersion(appId, env);
+            if (latestVersion.isEmpty()) {
+                if (cache.isLatestMissing(appId, env))
+                    return Optional.empty();
+                long latestStamp = cache.latestStamp(appId, env);
+                localStore.checkDatabase();
+                latestVersion = latestPointers.resolve(appId, env);
+                // Without a pointer the latest config can only be found by a full read.
+                if (latestVersion.isEmpty())
+                    return loadOne(appId, env, version).map(selection::applyTo);
+                cache.putLatestVersion(appId, env, latestVersion.get(), latestStamp);
+            }
+            resolved = latestVersion.get();
+        }
+        Optional<RemoteConfig> selected = findSelected(new ConfigKey(appId, env, resolved), selection);
+        // A pointer left on a deleted version is recovered from, and repaired, by a full read of the latest config.
+        if (selected.isEmpty() && Objects.equals(version, "latest"))
+            return loadOne(appId, env, version).map(selection::applyTo);
+        return selected;
+    }
+
+    private Optional<RemoteConfig> findSelected(ConfigKey key, ConfigSelection selection) {
+        Optional<RemoteConfig> cached = cache.get(key);
+        if (cached.isPresent())
+            return cached.map(selection::applyTo);
+        if (cache.isMissing(key))
+            return Optional.empty();
+        Optional<RemoteConfig> selected = cache.getSelected(key, selection);
+        if (selected.isPresent())
+            return selected;
+        return selectionLoads.execute(Map.entry(key, selection), () -> {
+            localStore.checkDatabase();
+            long stamp = cache.stamp(key);
+            Optional<RemoteConfig> loaded = repository.findSelected(key, selection);
+            loaded.ifPresentOrElse(config -> cache.putSelected(selection, config, stamp),
+                () -> cache.putMissing(key, stamp));
+            return loaded;
+        });
+    }
+
+    private Optional<RemoteConfig> loadOne(String appId, String env, String version) {
+        if (Objects.equals(version, "latest")) {
+            Optional<RemoteConfig> cached = cache.getLatest(appId, env);
+            if (cached.isPresent() || cache.isLatestMissing(appId, env))
+                return cached;
+            return latestLoads.execute(new ConfigKey(appId, env, version), () -> {
+                localStore.checkDatabase();
+                long stamp = cache.latestStamp(appId, env);
+                Optional<String> pointed = latestPointers.resolve(appId, env);
+                Optional<RemoteConfig> latest = pointed
+                    .flatMap(latestVersion -> findExact(new ConfigKey(appId, env, latestVersion)));
+                if (latest.isEmpty()) {
+                    latest = repository.findTopByAppIdAndEnvOrderByCreationDateDesc(appId, env);
+                    // A pointer left on a deleted version, by a failed or concurrent delete, is moved off it.
+                    pointed.ifPresent(latestVersion -> latestPointers.repair(new ConfigKey(appId, env, latestVersion)));
+                }
+                latest.ifPresentOrElse(config -> cache.putLatest(config, stamp),
+                    () -> cache.putLatestMissing(appId, env, stamp));
+                return latest;
+            });
+        }
+        return findExact(new ConfigKey(appId, env, version));
     }
 
     /**
@@ -66,57 +247,217 @@ public class RemoteConfigService {
      * mismatched.
      */
     public Integer lookup(String appId, String env, String version, String lastModDate) {
-        Optional<RemoteConfig> optConfig = repository.findByAppIdAndEnvAndVersion(appId, env, version);
-        if (optConfig.isPresent()) {
-            RemoteConfig config = optConfig.get();
-            Instant storedModDate = config.getLastModDate();
+        return metrics.time("lookup", appId, env, () -> {
+            ConfigKey key = new ConfigKey(appId, env, version);
+            Optional<Instant> storedModDate;
+            try {
+                storedModDate = findLastModDate(key);
+            } catch (DataAccessException e) {
+                localStore.recordFailure(e);
+                storedModDate = Optional.of(localStore.findFreshness(List.of(key))
+                    .flatMap(found -> found.stream().findFirst())
+                    .orElseThrow(() -> e)
+                    .getLastModDate());
+            }
+            if (storedModDate.isEmpty()) {
+                metrics.countLookup(appId, env, ConfigStatus.NOT_FOUND);
+                throw new RemoteConfigNotFoundException(appId, env, version);
+            }
             Instant clientModDate = Instant.parse(lastModDate);
-            return storedModDate.equals(clientModDate) ? ConfigStatus.UP_TO_DATE : ConfigStatus.NEEDS_TO_UPDATE;
-        } else {
-            throw new RemoteConfigNotFoundException(appId, env, version);
+            int status = storedModDate.get().equals(clientModDate)
+                ? ConfigStatus.UP_TO_DATE : ConfigStatus.NEEDS_TO_UPDATE;
+            metrics.countLookup(appId, env, status);
+            return status;
+        });
+    }
+
+    /**
+     * Batch variant of {@link #lookup} that checks several configurations of the same app at once.
+     *
+     * <p>Cached configurations are answered from memory and the timestamps of all remaining ones are fetched with a
+     * single covered query.
+     * Configurations that do not exist are reported with {@code ConfigStatus.NOT_FOUND} instead of failing the
+     * whole batch.</p>
+     *
+     * @param appId    the application ID.
+     * @param requests the env/version/lastModDate tuples to check.
+     * @return one {@link LookupResult} per request, in request order.
+     */
+    public List<LookupResult> lookupAll(String appId, List<LookupRequest> requests) {
+        return metrics.time("lookupAll", appId, "*", () -> resolveAll(appId, requests));
+    }
+
+    private List<LookupResult> resolveAll(String appId, List<LookupRequest> requests) {
+        Map<ConfigKey, Instant> storedModDates = new HashMap<>();
+        Map<ConfigKey, Long> misses = new LinkedHashMap<>();
+        for (LookupRequest request : requests) {
+            ConfigKey key = new ConfigKey(appId, request.getEnv(), request.getVersion());
+            Optional<Instant> cached = cache.getLastModDate(key);
+            if (cached.isPresent())
+                storedModDates.put(key, cached.get());
+            else if (!cache.isMissing(key))
+                misses.put(key, cache.stamp(key));
+        }
+        List<ConfigFreshness> found;
+        boolean stale = false;
+        try {
+            if (!misses.isEmpty())
+                localStore.checkDatabase();
+            found = repository.findFreshnessByKeys(misses.keySet());
+        } catch (DataAccessException e) {
+            localStore.recordFailure(e);
+            found = localStore.findFreshness(misses.keySet()).orElseThrow(() -> e);
+            stale = true;
         }
+        for (ConfigFreshness freshness : found) {
+            ConfigKey key = new ConfigKey(freshness.getAppId(), freshness.getEnv(), freshness.getVersion());
+            storedModDates.put(key, freshness.getLastModDate());
+            Long stamp = misses.get(key);
+            if (!stale && stamp != null)
+                cache.putLastModDate(key, freshness.getLastModDate(), stamp);
+        }
+        for (Map.Entry<ConfigKey, Long> miss : misses.entrySet()) {
+            if (!stale && !storedModDates.containsKey(miss.getKey()))
+                cache.putMissing(miss.getKey(), miss.getValue());
+        }
+
+        List<LookupResult> results = new ArrayList<>(requests.size());
+        for (LookupRequest request : requests) {
+            Instant storedModDate = storedModDates.get(new ConfigKey(appId, request.getEnv(), request.getVersion()));
+            int status;
+            if (storedModDate == null)
+                status = ConfigStatus.NOT_FOUND;
+            else
+                status = storedModDate.equals(Instant.parse(request.getLastModDate()))
+                    ? ConfigStatus.UP_TO_DATE : ConfigStatus.NEEDS_TO_UPDATE;
+            metrics.countLookup(appId, request.getEnv(), status);
+            results.add(new LookupResult(request.getEnv(), request.getVersion(), status));
+        }
+        return results;
     }
 
     /**
      * Updates the configuration map for a given remote configuration.
      *
-     * <p>This method only modifies the {@code configs} and {@code lastModDate} fields of the
-     * {@link RemoteConfig} identified by {@code appId}, {@code env}, and {@code version}.
-     * If no matching config is found, a {@link RemoteConfigNotFoundException} is thrown.
+     * <p>This method only modifies the {@code configs}, {@code lastModDate} and {@code revision} fields of the
+     * {@link RemoteConfig} identified by {@code appId}, {@code env}, and {@code version}, in a single atomic
+     * operation. If no matching config is found, a {@link RemoteConfigNotFoundException} is thrown.
+     * The new state is appended to the revision history kept by {@link ConfigRevisionService}.
+     * For a layered config, {@code newConfigs} replaces its own values and the merged view is resolved again.
+     * The views of the configs layered on it are rebuilt afterwards.
      *
-     * @param appId      the application ID associated with the config.
-     * @param env        the environment (e.g., dev, prod) of the config.
-     * @param version    the version identifier of the config.
-     * @param newConfigs the new configuration map to store.
+     * @param appId            the application ID associated with the config.
+     * @param env              the environment (e.g., dev, prod) of the config.
+     * @param version          the version identifier of the config.
+     * @param newConfigs       the new configuration map to store.
+     * @param expectedRevision the revision the config must be at, or {@code null} to update unconditionally.
      * @return the updated {@link RemoteConfig} object.
      * @throws RemoteConfigNotFoundException if the config is not found.
+     * @throws RemoteConfigConflictException if the config is not at the expected revision.
      */
-    public RemoteConfig updateConfigs(String appId, String env, String version, Map<String, Object> newConfigs) {
-        RemoteConfig config = repository.findByAppIdAndEnvAndVersion(appId, env, version)
-            .orElseThrow(() -> new RemoteConfigNotFoundException(appId, env, version));
+    public RemoteConfig updateConfigs(
+        String appId, String env, String version, Map<String, Object> newConfigs, Long expectedRevision
+    ) {
+        return metrics.time("updateConfigs", appId, env, () -> {
+            ConfigKey key = new ConfigKey(appId, env, version);
+            Instant now = Instant.now();
+            RemoteConfig updated = repository.updateConfigs(key, newConfigs, now, expectedRevision)
+                .or(() -> layers.updateLayer(key, newConfigs, now, expectedRevision))
+                .orElseThrow(() -> missingOrConflict(key, expectedRevision));
+            revisions.record(updated);
+            cache.invalidate(key);
+            publishChange(updated, false);
+            layers.rebuildDescendants(updated);
+            return updated;
+        });
+    }
 
-        config.setConfigs(newConfigs);
-        config.setLastModDate(Instant.now());
-        return repository.save(config);
+    /**
+     * Unconditional variant of {@link #updateConfigs(String, String, String, Map, Long)}.
+     */
+    public RemoteConfig updateConfigs(String appId, String env, String version, Map<String, Object> newConfigs) {
+        return updateConfigs(appId, env, version, newConfigs, null);
     }
 
     /**
      * Deletes a remote configuration from the database and returns the deleted entity.
      *
-     * <p>Looks up a {@link RemoteConfig} by {@code appId}, {@code env}, and {@code version},
-     * removes it from the repository, and returns it. If not found, throws
-     * {@link RemoteConfigNotFoundException}.
+     * <p>Atomically removes the {@link RemoteConfig} matching {@code appId}, {@code env}, and {@code version},
+     * and returns it. If not found, throws {@link RemoteConfigNotFoundException}.
+     * A config other configs are layered on cannot be deleted.
      *
-     * @param appId   the application ID of the config to delete.
-     * @param env     the environment of the config to delete.
-     * @param version the version of the config to delete.
+     * @param appId            the application ID of the config to delete.
+     * @param env              the environment of the config to delete.
+     * @param version          the version of the config to delete.
+     * @param expectedRevision the revision the config must be at, or {@code null} to delete unconditionally.
      * @return the deleted {@link RemoteConfig} entity.
      * @throws RemoteConfigNotFoundException if the config does not exist.
+     * @throws RemoteConfigConflictException if the config is not at the expected revision.
+     * @throws RemoteConfigInUseException if other configs are layered on the config.
+     */
+    public RemoteConfig deleteConfig(String appId, String env, String version, Long expectedRevision) {
+        return metrics.time("deleteConfig", appId, env, () -> {
+            ConfigKey key = new ConfigKey(appId, env, version);
+            Optional<RemoteConfig> deleted = repository.deleteByKey(key, expectedRevision);
+            if (deleted.isEmpty() && layers.releaseUnused(key))
+                deleted = repository.deleteByKey(key, expectedRevision);
+            RemoteConfig config = deleted.orElseThrow(() -> missingOrConflict(key, expectedRevision));
+            latestPointers.retreat(config);
+            revisions.forget(key);
+            cache.invalidate(key);
+            cache.invalidateLatest(appId, env);
+            publishChange(config, true);
+            return config;
+        });
+    }
+
+    /**
+     * Unconditional variant of {@link #deleteConfig(String, String, String, Long)}.
      */
     public RemoteConfig deleteConfig(String appId, String env, String version) {
-        RemoteConfig config = repository.findByAppIdAndEnvAndVersion(appId, env, version)
-            .orElseThrow(() -> new RemoteConfigNotFoundException(appId, env, version));
-        repository.delete(config);
-        return config;
+        return deleteConfig(appId, env, version, null);
+    }
+
+    private RuntimeException missingOrConflict(ConfigKey key, Long expectedRevision) {
+        if (expectedRevision != null && repository.existsByAppIdAndEnvAndVersion(key.appId(), key.env(), key.version()))
+            return new RemoteConfigConflictException(key.appId(), key.env(), key.version(), expectedRevision);
+        return new RemoteConfigNotFoundException(key.appId(), key.env(), key.version());
+    }
+
+    private void publishChange(RemoteConfig config, boolean deleted) {
+        eventPublisher.publishEvent(
+            new RemoteConfigChangedEvent(ConfigKey.of(config), config.getLastModDate(), deleted));
+    }
+
+    private Optional<Instant> findLastModDate(ConfigKey key) {
+        Optional<Instant> cached = cache.getLastModDate(key);
+        if (cached.isPresent())
+            return cached;
+        if (cache.isMissing(key))
+            return Optional.empty();
+        return freshnessLoads.execute(key, () -> {
+            localStore.checkDatabase();
+            long stamp = cache.stamp(key);
+            Optional<Instant> loaded = repository
+                .findFreshnessByAppIdAndEnvAndVersion(key.appId(), key.env(), key.version())
+                .map(ConfigFreshness::getLastModDate);
+            loaded.ifPresentOrElse(lastModDate -> cache.putLastModDate(key, lastModDate, stamp),
+                () -> cache.putMissing(key, stamp));
+            return loaded;
+        });
+    }
+
+    private Optional<RemoteConfig> findExact(ConfigKey key) {
+        Optional<RemoteConfig> cached = cache.get(key);
+        if (cached.isPresent() || cache.isMissing(key))
+            return cached;
+        return configLoads.execute(key, () -> {
+            localStore.checkDatabase();
+            long stamp = cache.stamp(key);
+            Optional<RemoteConfig> loaded = repository
+                .findByAppIdAndEnvAndVersion(key.appId(), key.env(), key.version());
+            loaded.ifPresentOrElse(config -> cache.put(config, stamp), () -> cache.putMissing(key, stamp));
+            return loaded;
+        });
     }
 }
\ No newline at end of file
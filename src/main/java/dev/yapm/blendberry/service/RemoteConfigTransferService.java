@@ -0,0 +1,230 @@
+package dev.yapm.blendberry.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.cache.RemoteConfigCache;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.dto.ImportReport;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.repository.RemoteConfigRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bulk transfer of {@link RemoteConfig} documents as newline-delimited JSON (one document per line).
+ *
+ * <p>Both directions are streamed: exports are written while reading a database cursor and imports are written in
+ * fixed-size unordered bulk upserts, so neither ever holds the whole dataset in memory.</p>
+ *
+ * <p>Exports carry the {@code parent} and {@code layer} of layered configurations, and imports resolve their merged
+ * views again once written, since the exported view may be stale against the imported parents.</p>
+ */
+@Service
+public class RemoteConfigTransferService {
+
+    private static final byte[] LINE_SEPARATOR = {'\n'};
+
+    private final RemoteConfigRepository repository;
+
+    private final RemoteConfigCache cache;
+
+    private final LatestConfigPointerService latestPointers;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ConfigLayerService layers;
+
+    private final ObjectReader configReader;
+
+    private final ObjectWriter configWriter;
+
+    private final Validator validator;
+
+    private final int batchSize;
+
+    private final int maxReportedErrors;
+
+    @Autowired
+    public RemoteConfigTransferService(
+        RemoteConfigRepository repository,
+        RemoteConfigCache cache,
+        LatestConfigPointerService latestPointers,
+        ApplicationEventPublisher eventPublisher,
+        ConfigLayerService layers,
+        ObjectMapper objectMapper,
+        Validator validator,
+        BlendBerryProperties properties
+    ) {
+        this.repository = repository;
+        this.cache = cache;
+        this.latestPointers = latestPointers;
+        this.eventPublisher = eventPublisher;
+        this.layers = layers;
+        this.configReader = objectMapper.readerFor(RemoteConfig.class);
+        this.configWriter = objectMapper.writerFor(RemoteConfig.class);
+        this.validator = validator;
+        this.batchSize = properties.getTransfer().getBatchSize();
+        this.maxReportedErrors = properties.getTransfer().getMaxReportedErrors();
+    }
+
+    /**
+     * Writes configurations as NDJSON while streaming them from the database.
+     *
+     * @param appId the application ID to export, or {@code null} to export every app.
+     * @param out   the stream to write to.
+     * @throws IOException if writing to the stream fails.
+     */
+    public void exportTo(String appId, OutputStream out) throws IOException {
+        try (Stream<RemoteConfig> configs = repository.streamAll(appId)) {
+            Iterator<RemoteConfig> iterator = configs.iterator();
+            while (iterator.hasNext()) {
+                out.write(configWriter.writeValueAsBytes(iterator.next()));
+                out.write(LINE_SEPARATOR);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads NDJSON configurations and upserts them by their (appId, env, version) key.
+     *
+     * <p>Malformed or invalid lines, and lines rejected by the database, are reported individually, up to
+     * {@code blendberry.transfer.max-reported-errors}, and do not stop the import. The changes of each bulk write are
+     * published as a single {@link RemoteConfigBatchChangedEvent}.</p>
+     *
+     * @param in the NDJSON stream to read.
+     * @return a report of the import.
+     * @throws IOException if reading the stream fails.
+     */
+    public ImportReport importFrom(InputStream in) throws IOException {
+        ImportReport report = new ImportReport();
+        List<RemoteConfig> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank())
+                continue;
+            report.setReceived(report.getReceived() + 1);
+
+            RemoteConfig config;
+            try {
+                config = configReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                reject(report, lineNumber, e.getOriginalMessage());
+                continue;
+            }
+            Set<ConstraintViolation<RemoteConfig>> violations = validator.validate(config);
+            if (!violations.isEmpty()) {
+                reject(report, lineNumber, describe(violations));
+                continue;
+            }
+
+            layers.normalize(config);
+            batch.add(config);
+            batchLines.add(lineNumber);
+            if (batch.size() >= batchSize)
+                flush(batch, batchLines, report);
+        }
+        flush(batch, batchLines, report);
+        return report;
+    }
+
+    private void flush(List<RemoteConfig> batch, List<Long> batchLines, ImportReport report) {
+        if (batch.isEmpty())
+            return;
+
+        Set<Integer> failed = new HashSet<>();
+        BulkWriteResult result;
+        try {
+            result = repository.upsertAll(batch);
+        } catch (BulkOperationException e) {
+            result = e.getResult();
+            for (BulkWriteError error : e.getErrors()) {
+                failed.add(error.getIndex());
+                reject(report, batchLines.get(error.getIndex()), error.getMessage());
+            }
+        }
+        report.setInserted(report.getInserted() + result.getUpserts().size());
+        report.setUpdated(report.getUpdated() + result.getMatchedCount());
+
+        Map<ConfigKey, RemoteConfig> newestPerEnv = new HashMap<>();
+        List<RemoteConfigChangedEvent> changes = new ArrayList<>(batch.size());
+        Set<ConfigKey> layered = new HashSet<>();
+        Set<ConfigKey> parents = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (failed.contains(i))
+                continue;
+            RemoteConfig config = batch.get(i);
+            ConfigKey key = ConfigKey.of(config);
+            cache.invalidate(key);
+            changes.add(new RemoteConfigChangedEvent(key, config.getLastModDate(), false));
+            if (config.getParent() != null) {
+                layered.add(key);
+                parents.add(new ConfigKey(key.appId(), config.getParent().getEnv(), config.getParent().getVersion()));
+            }
+            newestPerEnv.merge(new ConfigKey(config.getAppId(), config.getEnv(), null), config,
+                (a, b) -> a.getCreationDate().isAfter(b.getCreationDate()) ? a : b);
+        }
+        for (RemoteConfig newest : newestPerEnv.values()) {
+            latestPointers.advance(newest);
+            cache.invalidateLatest(newest.getAppId(), newest.getEnv());
+        }
+        if (!changes.isEmpty())
+            eventPublisher.publishEvent(new RemoteConfigBatchChangedEvent(changes));
+
+        // Only layered configs and the parents of others have merged views to resolve.
+        Set<ConfigKey> importedParents = repository.findParentsAmong(changes.stream()
+            .map(RemoteConfigChangedEvent::key)
+            .toList());
+        parents.addAll(importedParents);
+        repository.markInherited(parents);
+        layered.addAll(importedParents);
+        for (ConfigKey key : layered)
+            layers.refresh(key);
+
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private void reject(ImportReport report, long line, String message) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getErrors().size() < maxReportedErrors)
+            report.getErrors().add(new ImportReport.LineError(line, message));
+    }
+
+    private static String describe(Set<ConstraintViolation<RemoteConfig>> violations) {
+        return violations.stream()
+            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,60 @@
+package dev.yapm.blendberry.cache;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of {@link SingleFlight}: de-duplicates concurrent loads of the same key.
+ *
+ * <p>The first subscriber for a key runs the load, and subscribers arriving while it is in flight share its
+ * signal. The shared load keeps running if the subscriber that started it cancels, so the others still get a result.
+ * Once it terminates the key is released.</p>
+ *
+ * @param <K> the key type.
+ * @param <V> the loaded value type.
+ */
+public class ReactiveSingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Runnable onCoalesced;
+
+    /**
+     * @param onCoalesced called every time a subscriber joins a load already in flight.
+     */
+    public ReactiveSingleFlight(Runnable onCoalesced) {
+        this.onCoalesced = onCoalesced;
+    }
+
+    /**
+     * Runs the load for a key, or joins the one already in flight.
+     *
+     * @param key    the key to load.
+     * @param loader the load to run if none is in flight.
+     * @return the loaded value, empty if the load completed empty.
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> {
+            Mono<V> existing = inFlight.get(key);
+            if (existing != null) {
+                onCoalesced.run();
+                return existing;
+            }
+            AtomicReference<Mono<V>> self = new AtomicReference<>();
+            Mono<V> call = Mono.defer(loader)
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .cache();
+            self.set(call);
+            existing = inFlight.putIfAbsent(key, call);
+            if (existing != null) {
+                onCoalesced.run();
+                return existing;
+            }
+            return call;
+        });
+    }
+}
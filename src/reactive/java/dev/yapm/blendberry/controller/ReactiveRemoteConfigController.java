@@ -0,0 +1,284 @@
+package dev.yapm.blendberry.controller;
+
+import dev.yapm.blendberry.cache.ConfigSelection;
+import dev.yapm.blendberry.cache.ConfigSnapshotCache;
+import dev.yapm.blendberry.dto.ImportReport;
+import dev.yapm.blendberry.dto.LookupRequest;
+import dev.yapm.blendberry.dto.LookupResult;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.metrics.RemoteConfigMetrics;
+import dev.yapm.blendberry.service.ConfigRevisionService;
+import dev.yapm.blendberry.service.ReactiveConfigWatchService;
+import dev.yapm.blendberry.service.ReactiveRemoteConfigService;
+import dev.yapm.blendberry.service.RemoteConfigTransferService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WebFlux counterpart of {@link RemoteConfigController}, serving the same REST contract without blocking.
+ * Only registered when the application runs as a reactive web application.
+ */
+@RestController
+@RequestMapping("/configs")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRemoteConfigController {
+
+    private static final int IMPORT_PREFETCH = 16;
+
+    public final ReactiveRemoteConfigService remoteConfigService;
+
+    public final ReactiveConfigWatchService configWatchService;
+
+    public final RemoteConfigTransferService remoteConfigTransferService;
+
+    public final ConfigSnapshotCache configSnapshotCache;
+
+    public final RemoteConfigMetrics remoteConfigMetrics;
+
+    public final ConfigRevisionService configRevisionService;
+
+    @Autowired
+    public ReactiveRemoteConfigController(
+        ReactiveRemoteConfigService remoteConfigService,
+        ReactiveConfigWatchService configWatchService,
+        RemoteConfigTransferService remoteConfigTransferService,
+        ConfigSnapshotCache configSnapshotCache,
+        RemoteConfigMetrics remoteConfigMetrics,
+        ConfigRevisionService configRevisionService
+    ) {
+        this.remoteConfigService = remoteConfigService;
+        this.configWatchService = configWatchService;
+        this.remoteConfigTransferService = remoteConfigTransferService;
+        this.configSnapshotCache = configSnapshotCache;
+        this.remoteConfigMetrics = remoteConfigMetrics;
+        this.configRevisionService = configRevisionService;
+    }
+
+    /**
+     * @see RemoteConfigController#saveConfig
+     */
+    @PostMapping
+    public Mono<ResponseEntity<RemoteConfig>> saveConfig(@Valid @RequestBody RemoteConfig config) {
+        return remoteConfigService.save(config).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Imports NDJSON configurations as {@link RemoteConfigController#importConfigs} does.
+     *
+     * <p>Bulk imports are rare administrative calls, so they reuse the blocking {@link RemoteConfigTransferService}
+     * on a bounded elastic thread, reading the body as it arrives.</p>
+     */
+    @PostMapping(value = "import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<ImportReport>> importConfigs(@RequestBody Flux<DataBuffer> body) {
+        return Mono.fromCallable(() -> {
+                try (InputStream in = DataBufferUtils.subscriberInputStream(body, IMPORT_PREFETCH)) {
+                    return remoteConfigTransferService.importFrom(in);
+                }
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .map(ResponseEntity::ok);
+    }
+
+    /**
+     * @see RemoteConfigController#exportConfigs
+     */
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RemoteConfig> exportConfigs(@RequestHeader(value = "App-Id", required = false) String appId) {
+        return remoteConfigService.exportAll(appId);
+    }
+
+    /**
+     * @see RemoteConfigController#getConfig
+     */
+    @GetMapping("{env}")
+    public Mono<ResponseEntity<?>> getConfig(
+        @RequestHeader("App-Id") String appId,
+        @PathVariable String env,
+        @RequestParam @NotBlank String version,
+        @RequestParam(required = false) List<String> keys,
+        @RequestHeader HttpHeaders requestHeaders
+    ) {
+        ConfigSelection selection = ConfigSelection.parse(keys);
+        return remoteConfigService.findOne(appId, env, version, selection)
+            .<ResponseEntity<?>>map(config -> fullResponse(config, selection, requestHeaders))
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Serves merge patches as {@link RemoteConfigController#getConfigDelta} does. The revision history is read on a
+     * bounded elastic thread.
+     */
+    @GetMapping("{env}/delta")
+    public Mono<ResponseEntity<?>> getConfigDelta(
+        @RequestHeader("App-Id") String appId,
+        @PathVariable String env,
+        @RequestParam @NotBlank String version,
+        @RequestParam(required = false) String baseVersion,
+        @RequestParam(required = false) Long revision,
+        @RequestParam(required = false) String lastModDate,
+        @RequestHeader HttpHeaders requestHeaders
+    ) {
+        // Without a base version, a copy of "latest" cannot be compared, and gets the full document.
+        String heldVersion = baseVersion == null ? version : baseVersion;
+        Instant baseModDate = lastModDate == null ? null : Instant.parse(lastModDate);
+        return remoteConfigService.findOne(appId, env, version)
+            .<ResponseEntity<?>>flatMap(config -> {
+                if (configRevisionService.isCurrent(config, heldVersion, revision, baseModDate))
+                    return Mono.just(
+                        ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ConfigETag.of(config)).build());
+                return Mono.fromCallable(() ->
+                        configRevisionService.mergePatch(config, heldVersion, revision, baseModDate))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .map(patch -> patch
+                        .<ResponseEntity<?>>map(body -> ResponseEntity.ok()
+                            .eTag(ConfigETag.patch(ConfigETag.of(config), body.baseRevision()))
+                            .lastModified(config.getLastModDate())
+                            .contentType(RemoteConfigController.MERGE_PATCH_JSON)
+                            .body(body.patch()))
+                        .orElseGet(() -> fullResponse(config, ConfigSelection.ALL, requestHeaders)));
+            })
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<?> fullResponse(RemoteConfig config, ConfigSelection selection, HttpHeaders requestHeaders) {
+        String identityTag = ConfigETag.of(config, selection);
+        boolean gzip = AcceptEncoding.acceptsGzip(requestHeaders.getFirst(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? ConfigETag.gzip(identityTag) : identityTag;
+        // Preconditions are checked before the snapshot is fetched, so a 304 never serializes nor counts as a payload.
+        if (ConfigETag.notModified(requestHeaders, etag, config.getLastModDate()))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .lastModified(config.getLastModDate())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(etag)
+            .lastModified(config.getLastModDate())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .contentType(MediaType.APPLICATION_JSON);
+        return configSnapshotCache.get(config, selection)
+            .<ResponseEntity<?>>map(snapshot -> {
+                if (gzip) {
+                    remoteConfigMetrics.recordPayloadSize(config.getAppId(), config.getEnv(), "gzip",
+                        snapshot.gzip().length);
+                    return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+                }
+                remoteConfigMetrics.recordPayloadSize(config.getAppId(), config.getEnv(), "identity",
+                    snapshot.json().length);
+                return response.body(snapshot.json());
+            })
+            .orElseGet(() -> response.eTag(identityTag).body(config));
+    }
+
+    /**
+     * @see RemoteConfigController#lookup
+     */
+    @GetMapping("lookup")
+    public Mono<ResponseEntity<Integer>> lookup(
+        @RequestHeader("App-Id") String appId,
+        @RequestParam @NotNull String env,
+        @RequestParam @NotNull String version,
+        @RequestParam @NotNull String lastModDate
+    ) {
+        return remoteConfigService.lookup(appId, env, version, lastModDate).map(ResponseEntity::ok);
+    }
+
+    /**
+     * @see RemoteConfigController#lookupBatch
+     */
+    @PostMapping("lookup/batch")
+    public Mono<ResponseEntity<List<LookupResult>>> lookupBatch(
+        @RequestHeader("App-Id") String appId,
+        @Valid @RequestBody List<@Valid LookupRequest> requests
+    ) {
+        return remoteConfigService.lookupAll(appId, requests).map(ResponseEntity::ok);
+    }
+
+    /**
+     * @see RemoteConfigController#watch
+     */
+    @GetMapping("watch")
+    public Mono<ResponseEntity<Integer>> watch(
+        @RequestHeader("App-Id") String appId,
+        @RequestParam @NotNull String env,
+        @RequestParam @NotNull String version,
+        @RequestParam @NotNull String lastModDate,
+        @RequestParam(required = false) Duration timeout
+    ) {
+        return configWatchService.watch(appId, env, version, lastModDate, timeout).map(ResponseEntity::ok);
+    }
+
+    /**
+     * @see RemoteConfigController#watchStream
+     */
+    @GetMapping(value = "watch/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Integer>> watchStream(
+        @RequestHeader("App-Id") String appId,
+        @RequestParam @NotNull String env,
+        @RequestParam @NotNull String version,
+        @RequestParam @NotNull String lastModDate,
+        @RequestParam(required = false) Duration timeout
+    ) {
+        return configWatchService.stream(appId, env, version, lastModDate, timeout);
+    }
+
+    /**
+     * @see RemoteConfigController#updateConfigs
+     */
+    @PatchMapping("{env}")
+    public Mono<ResponseEntity<RemoteConfig>> updateConfigs(
+        @RequestHeader("App-Id") String appId,
+        @PathVariable String env,
+        @RequestParam String version,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody Map<String, Object> newConfigs
+    ) {
+        return remoteConfigService.updateConfigs(appId, env, version, newConfigs, ConfigETag.expectedRevision(ifMatch))
+            .map(updated -> ResponseEntity.ok()
+                .eTag(ConfigETag.of(updated))
+                .body(updated));
+    }
+
+    /**
+     * @see RemoteConfigController#deleteConfig
+     */
+    @DeleteMapping("{env}")
+    public Mono<ResponseEntity<RemoteConfig>> deleteConfig(
+        @RequestHeader("App-Id") String appId,
+        @PathVariable String env,
+        @RequestParam String version,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        return remoteConfigService.deleteConfig(appId, env, version, ConfigETag.expectedRevision(ifMatch))
+            .map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,34 @@
+package dev.yapm.blendberry.controller;
+
+import dev.yapm.blendberry.fallback.LocalConfigStore;
+import dev.yapm.blendberry.fallback.StaleMarker;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Instant;
+
+/**
+ * WebFlux counterpart of {@link StaleResponseAdvice}: flags responses built from the {@link LocalConfigStore} with
+ * the {@value StaleResponseAdvice#STALE_SINCE_HEADER} header.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class StaleResponseWebFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        StaleMarker marker = new StaleMarker();
+        exchange.getResponse().beforeCommit(() -> {
+            Instant staleSince = marker.staleSince();
+            if (staleSince != null)
+                exchange.getResponse().getHeaders().set(StaleResponseAdvice.STALE_SINCE_HEADER, staleSince.toString());
+            return Mono.empty();
+        });
+        return chain.filter(exchange).contextWrite(Context.of(StaleMarker.class, marker));
+    }
+}
@@ -0,0 +1,46 @@
+package dev.yapm.blendberry.exception;
+
+import dev.yapm.blendberry.metrics.RemoteConfigMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the WebFlux validation failures to the same response as {@link GlobalExceptionHandler} does for Spring MVC.
+ * Every other error is left to {@link GlobalExceptionHandler}, which serves both stacks.
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveValidationExceptionHandler {
+
+    private final RemoteConfigMetrics metrics;
+
+    @Autowired
+    public ReactiveValidationExceptionHandler(RemoteConfigMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Handles validation failures for annotated request bodies.
+     *
+     * @param ignoredE the exception thrown during validation.
+     * @return a 400 BAD REQUEST with a validation error message.
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, String>> handleValidationException(WebExchangeBindException ignoredE) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "ValidationError");
+        response.put("message", "Argument Not Valid");
+        return GlobalExceptionHandler.respond(metrics, response, HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,26 @@
+package dev.yapm.blendberry.fallback;
+
+import java.time.Instant;
+
+/**
+ * Reactive counterpart of {@link LocalConfigStore#STALE_SINCE_ATTRIBUTE}: a per-exchange holder, stored in the
+ * Reactor context, that is marked when a read of the exchange was answered from the {@link LocalConfigStore}.
+ */
+public final class StaleMarker {
+
+    private volatile Instant staleSince;
+
+    /**
+     * @param copiedAt the instant the served data was copied at.
+     */
+    public void mark(Instant copiedAt) {
+        staleSince = copiedAt;
+    }
+
+    /**
+     * @return the instant the served data was copied at, or {@code null} if the exchange was served fresh.
+     */
+    public Instant staleSince() {
+        return staleSince;
+    }
+}
@@ -0,0 +1,15 @@
+package dev.yapm.blendberry.repository;
+
+import dev.yapm.blendberry.entity.LatestConfigPointer;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link LatestConfigPointerRepository}.
+ */
+@Repository
+public interface ReactiveLatestConfigPointerRepository extends ReactiveMongoRepository<LatestConfigPointer, String> {
+
+    Mono<LatestConfigPointer> findByAppIdAndEnv(String appId, String env);
+}
@@ -0,0 +1,31 @@
+package dev.yapm.blendberry.repository;
+
+import dev.yapm.blendberry.entity.RemoteConfig;
+import org.springframework.data.mongodb.repository.Hint;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link RemoteConfigRepository}, used by the reactive serving stack.
+ */
+@Repository
+public interface ReactiveRemoteConfigRepository
+    extends ReactiveMongoRepository<RemoteConfig, String>, ReactiveRemoteConfigRepositoryCustom {
+
+    @Query(fields = RemoteConfigRepository.SERVED_FIELDS)
+    Mono<RemoteConfig> findTopByAppIdAndEnvOrderByCreationDateDesc(String appId, String env);
+
+    @Query(fields = RemoteConfigRepository.SERVED_FIELDS)
+    Mono<RemoteConfig> findByAppIdAndEnvAndVersion(String appId, String env, String version);
+
+    Mono<Boolean> existsByAppIdAndEnvAndVersion(String appId, String env, String version);
+
+    @Hint(RemoteConfig.FRESHNESS_INDEX)
+    @Query(
+        value = "{ 'appId': ?0, 'env': ?1, 'version': ?2 }",
+        fields = "{ '_id': 0, 'appId': 1, 'env': 1, 'version': 1, 'lastModDate': 1 }"
+    )
+    Mono<ConfigFreshness> findFreshnessByAppIdAndEnvAndVersion(String appId, String env, String version);
+}
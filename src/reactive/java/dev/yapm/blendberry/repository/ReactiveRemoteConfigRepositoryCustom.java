@@ -0,0 +1,64 @@
+package dev.yapm.blendberry.repository;
+
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.cache.ConfigSelection;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Non-blocking counterpart of {@link RemoteConfigRepositoryCustom}.
+ */
+public interface ReactiveRemoteConfigRepositoryCustom {
+
+    /**
+     * Fetches the modification timestamp of every configuration matching one of the given keys in a single
+     * covered query.
+     *
+     * @param keys the keys to resolve.
+     * @return the freshness of the configurations found, in no particular order.
+     */
+    Flux<ConfigFreshness> findFreshnessByKeys(Collection<ConfigKey> keys);
+
+    /**
+     * Fetches a configuration with only the selected keys of its {@code configs} map, projected by the database.
+     *
+     * @param key       the key of the config to read.
+     * @param selection the selected keys, not {@link ConfigSelection#ALL}.
+     * @return the projected config, empty if no config matched.
+     */
+    Mono<RemoteConfig> findSelected(ConfigKey key, ConfigSelection selection);
+
+    /**
+     * Atomically replaces the configuration map of a config that is not layered and increments its revision.
+     *
+     * @param key              the key of the config to update.
+     * @param configs          the new configuration map.
+     * @param lastModDate      the new modification timestamp.
+     * @param expectedRevision the revision the config must be at, or {@code null} to update unconditionally.
+     * @return the updated config, empty if no config matched or it is layered.
+     */
+    Mono<RemoteConfig> updateConfigs(
+        ConfigKey key, Map<String, Object> configs, Instant lastModDate, Long expectedRevision);
+
+    /**
+     * Atomically removes a config, unless it is flagged as inherited.
+     *
+     * @param key              the key of the config to delete.
+     * @param expectedRevision the revision the config must be at, or {@code null} to delete unconditionally.
+     * @return the deleted config, empty if no config matched.
+     */
+    Mono<RemoteConfig> deleteByKey(ConfigKey key, Long expectedRevision);
+
+    /**
+     * Streams the configurations of an app, or of every app, with back-pressure.
+     *
+     * @param appId the application identifier, or {@code null} for all configurations.
+     * @return the configurations.
+     */
+    Flux<RemoteConfig> streamAll(String appId);
+}
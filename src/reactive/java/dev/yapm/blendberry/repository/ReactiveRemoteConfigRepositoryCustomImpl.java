@@ -0,0 +1,76 @@
+package dev.yapm.blendberry.repository;
+
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.cache.ConfigSelection;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * {@link ReactiveMongoTemplate} based implementation of {@link ReactiveRemoteConfigRepositoryCustom}, issuing the
+ * same queries as {@link RemoteConfigRepositoryCustomImpl}.
+ */
+public class ReactiveRemoteConfigRepositoryCustomImpl implements ReactiveRemoteConfigRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    public ReactiveRemoteConfigRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<ConfigFreshness> findFreshnessByKeys(Collection<ConfigKey> keys) {
+        if (keys.isEmpty())
+            return Flux.empty();
+        Criteria[] matchers = keys.stream()
+            .map(key -> Criteria.where("appId").is(key.appId())
+                .and("env").is(key.env())
+                .and("version").is(key.version()))
+            .toArray(Criteria[]::new);
+        Query query = Query.query(new Criteria().orOperator(matchers)).withHint(RemoteConfig.FRESHNESS_INDEX);
+        query.fields().include("appId", "env", "version", "lastModDate").exclude("_id");
+        return mongoTemplate.find(query, ConfigFreshness.class, mongoTemplate.getCollectionName(RemoteConfig.class));
+    }
+
+    @Override
+    public Mono<RemoteConfig> findSelected(ConfigKey key, ConfigSelection selection) {
+        return mongoTemplate.findOne(RemoteConfigRepositoryCustomImpl.selecting(key, selection), RemoteConfig.class);
+    }
+
+    @Override
+    public Mono<RemoteConfig> updateConfigs(
+        ConfigKey key, Map<String, Object> configs, Instant lastModDate, Long expectedRevision
+    ) {
+        Update update = Update.update("configs", configs)
+            .set("lastModDate", lastModDate)
+            .inc("revision", 1);
+        Query query = RemoteConfigRepositoryCustomImpl.unlayered(
+            RemoteConfigRepositoryCustomImpl.matching(key, expectedRevision));
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+            RemoteConfig.class);
+    }
+
+    @Override
+    public Mono<RemoteConfig> deleteByKey(ConfigKey key, Long expectedRevision) {
+        Query query = RemoteConfigRepositoryCustomImpl.unused(
+            RemoteConfigRepositoryCustomImpl.matching(key, expectedRevision));
+        return mongoTemplate.findAndRemove(query, RemoteConfig.class);
+    }
+
+    @Override
+    public Flux<RemoteConfig> streamAll(String appId) {
+        Query query = appId == null ? new Query() : Query.query(Criteria.where("appId").is(appId));
+        return mongoTemplate.find(query, RemoteConfig.class);
+    }
+}
@@ -0,0 +1,135 @@
+package dev.yapm.blendberry.service;
+
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.exception.RemoteConfigNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking counterpart of {@link ConfigWatchService}: every {@link RemoteConfigChangedEvent} is multicast to the
+ * watching exchanges, which hold no thread while they wait.
+ */
+@Service
+public class ReactiveConfigWatchService {
+
+    private static final Duration EMIT_RETRY = Duration.ofMillis(100);
+
+    private final ReactiveRemoteConfigService remoteConfigService;
+
+    private final BlendBerryProperties.Watch settings;
+
+    private final Sinks.Many<RemoteConfigChangedEvent> changes = Sinks.many().multicast().directBestEffort();
+
+    @Autowired
+    public ReactiveConfigWatchService(
+        ReactiveRemoteConfigService remoteConfigService,
+        BlendBerryProperties properties
+    ) {
+        this.remoteConfigService = remoteConfigService;
+        this.settings = properties.getWatch();
+    }
+
+    /**
+     * Waits until the configuration differs from the client's copy or the timeout elapses, as
+     * {@link ConfigWatchService#watch} does.
+     *
+     * @param appId       the application ID.
+     * @param env         the environment.
+     * @param version     the version to watch.
+     * @param lastModDate the client's last modification date (ISO-8601 format).
+     * @param timeout     how long to wait, or {@code null} for the configured default.
+     * @return {@code NEEDS_TO_UPDATE} as soon as a change is seen, {@code UP_TO_DATE} on timeout, or a
+     * {@link RemoteConfigNotFoundException} error if the configuration does not exist or is deleted.
+     */
+    public Mono<Integer> watch(String appId, String env, String version, String lastModDate, Duration timeout) {
+        ConfigKey key = new ConfigKey(appId, env, version);
+        return Mono.defer(() -> {
+            Instant clientModDate = Instant.parse(lastModDate);
+            Mono<Integer> change = changes.asFlux()
+                .filter(event -> event.key().equals(key)
+                    && (event.deleted() || !event.lastModDate().equals(clientModDate)))
+                .next()
+                .flatMap(event -> event.deleted()
+                    ? Mono.error(new RemoteConfigNotFoundException(appId, env, version))
+                    : Mono.just(ConfigStatus.NEEDS_TO_UPDATE));
+            Mono<Integer> current = remoteConfigService.lookup(appId, env, version, lastModDate)
+                .filter(status -> status == ConfigStatus.NEEDS_TO_UPDATE);
+            // Merge subscribes to the changes before checking, so a write landing in between is not missed.
+            return Flux.merge(change, current)
+                .next()
+                .timeout(resolveTimeout(timeout, settings.getDefaultTimeout()), Mono.just(ConfigStatus.UP_TO_DATE));
+        });
+    }
+
+    /**
+     * Streams a {@code status} event every time the configuration changes, as {@link ConfigWatchService#stream} does.
+     *
+     * @param appId       the application ID.
+     * @param env         the environment.
+     * @param version     the version to watch.
+     * @param lastModDate the client's last modification date (ISO-8601 format).
+     * @param timeout     how long the stream is kept open, or {@code null} for the configured maximum.
+     * @return the event stream.
+     */
+    public Flux<ServerSentEvent<Integer>> stream(
+        String appId, String env, String version, String lastModDate, Duration timeout
+    ) {
+        ConfigKey key = new ConfigKey(appId, env, version);
+        return Flux.defer(() -> {
+            AtomicReference<Instant> seenModDate = new AtomicReference<>(Instant.parse(lastModDate));
+            Flux<ServerSentEvent<Integer>> updates = changes.asFlux()
+                .filter(event -> event.key().equals(key))
+                .handle((event, sink) -> {
+                    if (event.deleted()) {
+                        sink.next(ServerSentEvent.builder(ConfigStatus.NEEDS_TO_UPDATE).event("deleted").build());
+                        sink.complete();
+                    } else if (!event.lastModDate().equals(seenModDate.getAndSet(event.lastModDate()))) {
+                        sink.next(ServerSentEvent.builder(ConfigStatus.NEEDS_TO_UPDATE)
+                            .event("status")
+                            .id(event.lastModDate().toString())
+                            .build());
+                    }
+                });
+            Mono<ServerSentEvent<Integer>> current = remoteConfigService.lookup(appId, env, version, lastModDate)
+                .map(status -> ServerSentEvent.builder(status).event("status").build());
+            return Flux.merge(updates, current)
+                .take(resolveTimeout(timeout, settings.getMaxTimeout()));
+        });
+    }
+
+    /**
+     * Multicasts a change to the watching exchanges.
+     *
+     * @param event the local or remote change.
+     */
+    @EventListener
+    public void onConfigChanged(RemoteConfigChangedEvent event) {
+        changes.emitNext(event, Sinks.EmitFailureHandler.busyLooping(EMIT_RETRY));
+    }
+
+    /**
+     * Multicasts a batch of changes to the watching exchanges.
+     *
+     * @param event the local changes.
+     */
+    @EventListener
+    public void onConfigsChanged(RemoteConfigBatchChangedEvent event) {
+        event.changes().forEach(this::onConfigChanged);
+    }
+
+    private Duration resolveTimeout(Duration requested, Duration fallback) {
+        if (requested == null || requested.isNegative() || requested.isZero())
+            return fallback;
+        return requested.compareTo(settings.getMaxTimeout()) > 0 ? settings.getMaxTimeout() : requested;
+    }
+}
@@ -0,0 +1,118 @@
+package dev.yapm.blendberry.service;
+
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.entity.LatestConfigPointer;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.repository.ReactiveLatestConfigPointerRepository;
+import dev.yapm.blendberry.repository.ReactiveRemoteConfigRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link LatestConfigPointerService}, issuing the same conditional pointer updates.
+ *
+ * <p>A failed pointer update fails the write that caused it. A pointer left on a deleted version is repaired by the
+ * next read that finds it, see {@link #repair}.</p>
+ */
+@Slf4j
+@Service
+public class ReactiveLatestConfigPointerService {
+
+    private final ReactiveLatestConfigPointerRepository pointerRepository;
+
+    private final ReactiveRemoteConfigRepository configRepository;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    public ReactiveLatestConfigPointerService(
+        ReactiveLatestConfigPointerRepository pointerRepository,
+        ReactiveRemoteConfigRepository configRepository,
+        ReactiveMongoTemplate mongoTemplate
+    ) {
+        this.pointerRepository = pointerRepository;
+        this.configRepository = configRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Resolves the latest version of an environment.
+     *
+     * @param appId the application identifier.
+     * @param env   the environment.
+     * @return the latest version, empty if no pointer exists.
+     */
+    public Mono<String> resolve(String appId, String env) {
+        return pointerRepository.findByAppIdAndEnv(appId, env).map(LatestConfigPointer::getVersion);
+    }
+
+    /**
+     * Points the environment of a configuration to it, unless a more recently created one is already pointed.
+     *
+     * @param config the configuration that was just created.
+     * @return completes once the pointer is up to date.
+     */
+    public Mono<Void> advance(RemoteConfig config) {
+        Query olderOrSame = Query.query(Criteria.where("appId").is(config.getAppId())
+            .and("env").is(config.getEnv())
+            .and("creationDate").lte(config.getCreationDate()));
+        Update update = Update.update("version", config.getVersion()).set("creationDate", config.getCreationDate());
+        return mongoTemplate.upsert(olderOrSame, update, LatestConfigPointer.class)
+            .then()
+            // The pointer already references a more recently created configuration.
+            .onErrorResume(DuplicateKeyException.class, ignored -> Mono.empty());
+    }
+
+    /**
+     * Moves the pointer of the environment back to the previous version if the deleted configuration was its
+     * latest one, or removes the pointer if no configuration is left, retrying as
+     * {@link LatestConfigPointerService#retreat} does if the previous version is deleted concurrently.
+     *
+     * @param deleted the configuration that was just deleted.
+     * @return completes once the pointer is up to date.
+     */
+    public Mono<Void> retreat(RemoteConfig deleted) {
+        return retreat(ConfigKey.of(deleted), deleted.getVersion());
+    }
+
+    /**
+     * Moves a pointer found on a version that no longer exists, as {@link LatestConfigPointerService#repair} does.
+     * A failure is only logged, the next read finding the pointer repairs it again.
+     *
+     * @param missing the key the pointer was found on.
+     * @return completes once the pointer is repaired or could not be.
+     */
+    public Mono<Void> repair(ConfigKey missing) {
+        return retreat(missing, missing.version())
+            .onErrorResume(DataAccessException.class, e -> {
+                log.warn("Could not repair the latest-version pointer of {}", missing, e);
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Void> retreat(ConfigKey deleted, String from) {
+        Query pointsToDeleted = Query.query(Criteria.where("appId").is(deleted.appId())
+            .and("env").is(deleted.env())
+            .and("version").is(from));
+        return configRepository.findTopByAppIdAndEnvOrderByCreationDateDesc(deleted.appId(), deleted.env())
+            .flatMap(config -> mongoTemplate.updateFirst(pointsToDeleted, Update.update("version", config.getVersion())
+                    .set("creationDate", config.getCreationDate()), LatestConfigPointer.class)
+                .filter(moved -> moved.getMatchedCount() > 0)
+                .flatMap(moved -> configRepository.existsByAppIdAndEnvAndVersion(
+                    deleted.appId(), deleted.env(), config.getVersion()))
+                .filter(exists -> !exists)
+                .flatMap(gone -> retreat(deleted, config.getVersion()))
+                .thenReturn(true))
+            .switchIfEmpty(Mono.defer(() -> mongoTemplate.remove(pointsToDeleted, LatestConfigPointer.class)
+                .thenReturn(true)))
+            .then();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,447 @@
+package dev.yapm.blendberry.service;
+
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.cache.ConfigSelection;
+import dev.yapm.blendberry.cache.ReactiveSingleFlight;
+import dev.yapm.blendberry.cache.RemoteConfigCache;
+import dev.yapm.blendberry.dto.LookupRequest;
+import dev.yapm.blendberry.dto.LookupResult;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.exception.RemoteConfigConflictException;
+import dev.yapm.blendberry.exception.RemoteConfigNotFoundException;
+import dev.yapm.blendberry.fallback.LocalConfigStore;
+import dev.yapm.blendberry.fallback.StaleMarker;
+import dev.yapm.blendberry.metrics.RemoteConfigMetrics;
+import dev.yapm.blendberry.repository.ConfigFreshness;
+import dev.yapm.blendberry.repository.ReactiveRemoteConfigRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Non-blocking counterpart of {@link RemoteConfigService}, serving the reactive stack.
+ *
+ * <p>It shares the {@link RemoteConfigCache}, the {@link LocalConfigStore} fallback, the revision history and the
+ * change events with the blocking service, so both stacks behave the same and the invalidation bus keeps working.
+ * Change events and history writes run off the event loop, since they block. So does the resolution of layered
+ * configurations by the {@link ConfigLayerService}, which only happens on writes.</p>
+ */
+@Service
+public class ReactiveRemoteConfigService {
+
+    private final ReactiveRemoteConfigRepository repository;
+
+    private final RemoteConfigCache cache;
+
+    private final ReactiveLatestConfigPointerService latestPointers;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final RemoteConfigMetrics metrics;
+
+    private final LocalConfigStore localStore;
+
+    private final ConfigRevisionService revisions;
+
+    private final ConfigLayerService layers;
+
+    private final ReactiveSingleFlight<ConfigKey, RemoteConfig> configLoads;
+
+    private final ReactiveSingleFlight<ConfigKey, RemoteConfig> latestLoads;
+
+    private final ReactiveSingleFlight<ConfigKey, Instant> freshnessLoads;
+
+    private final ReactiveSingleFlight<Map.Entry<ConfigKey, ConfigSelection>, RemoteConfig> selectionLoads;
+
+    @Autowired
+    public ReactiveRemoteConfigService(
+        ReactiveRemoteConfigRepository repository,
+        RemoteConfigCache cache,
+        ReactiveLatestConfigPointerService latestPointers,
+        ApplicationEventPublisher eventPublisher,
+        RemoteConfigMetrics metrics,
+        LocalConfigStore localStore,
+        ConfigRevisionService revisions,
+        ConfigLayerService layers
+    ) {
+        this.repository = repository;
+        this.cache = cache;
+        this.latestPointers = latestPointers;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+        this.localStore = localStore;
+        this.revisions = revisions;
+        this.layers = layers;
+        this.configLoads = new ReactiveSingleFlight<>(metrics.coalescedLoadCounter("config"));
+        this.latestLoads = new ReactiveSingleFlight<>(metrics.coalescedLoadCounter("latest"));
+        this.freshnessLoads = new ReactiveSingleFlight<>(metrics.coalescedLoadCounter("freshness"));
+        this.selectionLoads = new ReactiveSingleFlight<>(metrics.coalescedLoadCounter("selection"));
+    }
+
+    /**
+     * Persists a new or updated configuration entry into the database, as {@link RemoteConfigService#save} does.
+     *
+     * @param config the RemoteConfig object to store.
+     * @return the saved RemoteConfig object.
+     */
+    public Mono<RemoteConfig> save(RemoteConfig config) {
+        return Mono.fromCallable(() -> layers.prepare(config))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(repository::save)
+            .flatMap(saved -> latestPointers.advance(saved)
+                .then(offEventLoop(() -> revisions.record(saved)))
+                .then(Mono.fromRunnable(() -> {
+                    cache.invalidate(ConfigKey.of(saved));
+                    cache.invalidateLatest(saved.getAppId(), saved.getEnv());
+                }))
+                .then(publishChange(saved, false))
+                .then(offEventLoop(() -> layers.rebuildDescendants(saved)))
+                .thenReturn(saved));
+    }
+
+    /**
+     * Finds a specific configuration based on app ID, environment, and version, as
+     * {@link RemoteConfigService#findOne} does.
+     *
+     * @param appId   the application identifier.
+     * @param env     the environment (e.g., dev, prod).
+     * @param version the configuration version or "latest".
+     * @return the config, empty if not found.
+     */
+    public Mono<RemoteConfig> findOne(String appId, String env, String version) {
+        return loadOne(appId, env, version)
+            .onErrorResume(DataAccessException.class, e -> stale(Objects.equals(version, "latest")
+                ? localStore.findLatest(appId, env)
+                : localStore.find(new ConfigKey(appId, env, version)), e));
+    }
+
+    /**
+     * Finds the selected keys of a configuration, as {@link RemoteConfigService#findOne(String, String, String,
+     * ConfigSelection)} does.
+     *
+     * @param appId     the application identifier.
+     * @param env       the environment (e.g., dev, prod).
+     * @param version   the configuration version or "latest".
+     * @param selection the keys to return.
+     * @return the projected config, empty if not found.
+     */
+    public Mono<RemoteConfig> findOne(String appId, String env, String version, ConfigSelection selection) {
+        if (selection.isAll())
+            return findOne(appId, env, version);
+        return loadSelected(appId, env, version, selection)
+            .onErrorResume(DataAccessException.class, e -> stale(Objects.equals(version, "latest")
+                ? localStore.findLatest(appId, env)
+                : localStore.find(new ConfigKey(appId, env, version)), e).map(selection::applyTo));
+    }
+
+    private Mono<RemoteConfig> loadSelected(String appId, String env, String version, ConfigSelection selection) {
+        if (!Objects.equals(version, "latest"))
+            return findSelected(new ConfigKey(appId, env, version), selection);
+        return Mono.defer(() -> {
+            Optional<String> cached = cache.getLatestVersion(appId, env);
+            if (cache.isLatestMissing(appId, env))
+                return Mono.empty();
+            long latestStamp = cache.latestStamp(appId, env);
+            Mono<String> latestVersion = cached.map(Mono::just).orElseGet(() -> checkDatabase()
+                .then(latestPointers.resolve(appId, env))
+                .doOnNext(resolved -> cache.putLatestVersion(appId, env, resolved, latestStamp)));
+            return latestVersion
+                .flatMap(resolved -> findSelected(new ConfigKey(appId, env, resolved), selection))
+                // Without a pointer, or with one left on a version deleted concurrently, the latest config can only
+                // be found by a full read.
+                .switchIfEmpty(Mono.defer(() -> loadOne(appId, env, version).map(selection::applyTo)));
+        });
+    }
+
+    private Mono<RemoteConfig> loadOne(String appId, String env, String version) {
+        if (!Objects.equals(version, "latest"))
+            return findExact(new ConfigKey(appId, env, version));
+        return Mono.defer(() -> {
+            Optional<RemoteConfig> cached = cache.getLatest(appId, env);
+            if (cached.isPresent())
+                return Mono.just(cached.get());
+            if (cache.isLatestMissing(appId, env))
+                return Mono.empty();
+            return latestLoads.execute(new ConfigKey(appId, env, version), () -> {
+                long stamp = cache.latestStamp(appId, env);
+                return checkDatabase()
+                    .then(latestPointers.resolve(appId, env))
+                    .flatMap(latestVersion -> findExact(new ConfigKey(appId, env, latestVersion))
+                        // A pointer left on a deleted version, by a failed or concurrent delete, is moved off it.
+                        .switchIfEmpty(Mono.defer(() -> latestPointers.repair(new ConfigKey(appId, env, latestVersion))
+                            .then(Mono.empty()))))
+                    .switchIfEmpty(Mono.defer(() -> repository.findTopByAppIdAndEnvOrderByCreationDateDesc(appId, env)))
+                    .doOnNext(config -> cache.putLatest(config, stamp))
+                    .switchIfEmpty(Mono.fromRunnable(() -> cache.putLatestMissing(appId, env, stamp)));
+            });
+        });
+    }
+
+    /**
+     * Checks whether a client copy is up to date, as {@link RemoteConfigService#lookup} does.
+     *
+     * @param appId       the application ID.
+     * @param env         the environment.
+     * @param version     the version to check.
+     * @param lastModDate the client's last modification date (ISO-8601 format).
+     * @return {@code ConfigStatus.UP_TO_DATE} or {@code ConfigStatus.NEEDS_TO_UPDATE}, or a
+     * {@link RemoteConfigNotFoundException} error if none configuration was resolved.
+     */
+    public Mono<Integer> lookup(String appId, String env, String version, String lastModDate) {
+        ConfigKey key = new ConfigKey(appId, env, version);
+        return findLastModDate(key)
+            .onErrorResume(DataAccessException.class, e -> stale(localStore.findFreshness(List.of(key))
+                .flatMap(found -> found.stream().findFirst())
+                .map(ConfigFreshness::getLastModDate), e))
+            .map(storedModDate -> storedModDate.equals(Instant.parse(lastModDate))
+                ? ConfigStatus.UP_TO_DATE : ConfigStatus.NEEDS_TO_UPDATE)
+            .doOnNext(status -> metrics.countLookup(appId, env, status))
+            .switchIfEmpty(Mono.defer(() -> {
+                metrics.countLookup(appId, env, ConfigStatus.NOT_FOUND);
+                return Mono.error(new RemoteConfigNotFoundException(appId, env, version));
+            }));
+    }
+
+    /**
+     * Batch variant of {@link #lookup}, as {@link RemoteConfigService#lookupAll} does.
+     *
+     * @param appId    the application ID.
+     * @param requests the env/version/lastModDate tuples to check.
+     * @return one {@link LookupResult} per request, in request order.
+     */
+    public Mono<List<LookupResult>> lookupAll(String appId, List<LookupRequest> requests) {
+        return Mono.defer(() -> {
+            Map<ConfigKey, Instant> storedModDates = new HashMap<>();
+            Map<ConfigKey, Long> misses = new LinkedHashMap<>();
+            for (LookupRequest request : requests) {
+                ConfigKey key = new ConfigKey(appId, request.getEnv(), request.getVersion());
+                Optional<Instant> cached = cache.getLastModDate(key);
+                if (cached.isPresent())
+                    storedModDates.put(key, cached.get());
+                else if (!cache.isMissing(key))
+                    misses.put(key, cache.stamp(key));
+            }
+            return (misses.isEmpty() ? Mono.<Void>empty() : checkDatabase())
+                .thenMany(repository.findFreshnessByKeys(misses.keySet()))
+                .collectList()
+                .map(found -> resolveAll(appId, requests, storedModDates, misses, found, false))
+                .onErrorResume(DataAccessException.class, e -> stale(localStore.findFreshness(misses.keySet()), e)
+                    .map(found -> resolveAll(appId, requests, storedModDates, misses, found, true)));
+        });
+    }
+
+    private List<LookupResult> resolveAll(
+        String appId,
+        List<LookupRequest> requests,
+        Map<ConfigKey, Instant> storedModDates,
+        Map<ConfigKey, Long> misses,
+        List<ConfigFreshness> found,
+        boolean stale
+    ) {
+        for (ConfigFreshness freshness : found) {
+            ConfigKey key = new ConfigKey(freshness.getAppId(), freshness.getEnv(), freshness.getVersion());
+            storedModDates.put(key, freshness.getLastModDate());
+            Long stamp = misses.get(key);
+            if (!stale && stamp != null)
+                cache.putLastModDate(key, freshness.getLastModDate(), stamp);
+        }
+        for (Map.Entry<ConfigKey, Long> miss : misses.entrySet()) {
+            if (!stale && !storedModDates.containsKey(miss.getKey()))
+                cache.putMissing(miss.getKey(), miss.getValue());
+        }
+
+        List<LookupResult> results = new ArrayList<>(requests.size());
+        for (LookupRequest request : requests) {
+            Instant storedModDate = storedModDates.get(new ConfigKey(appId, request.getEnv(), request.getVersion()));
+            int status;
+            if (storedModDate == null)
+                status = ConfigStatus.NOT_FOUND;
+            else
+                status = storedModDate.equals(Instant.parse(request.getLastModDate()))
+                    ? ConfigStatus.UP_TO_DATE : ConfigStatus.NEEDS_TO_UPDATE;
+            metrics.countLookup(appId, request.getEnv(), status);
+            results.add(new LookupResult(request.getEnv(), request.getVersion(), status));
+        }
+        return results;
+    }
+
+    /**
+     * Atomically replaces the configuration map of a config, as {@link RemoteConfigService#updateConfigs} does.
+     *
+     * @param appId            the application ID associated with the config.
+     * @param env              the environment (e.g., dev, prod) of the config.
+     * @param version          the version identifier of the config.
+     * @param newConfigs       the new configuration map to store.
+     * @param expectedRevision the revision the config must be at, or {@code null} to update unconditionally.
+     * @return the updated config, or a {@link RemoteConfigNotFoundException} or
+     * {@link RemoteConfigConflictException} error.
+     */
+    public Mono<RemoteConfig> updateConfigs(
+        String appId, String env, String version, Map<String, Object> newConfigs, Long expectedRevision
+    ) {
+        ConfigKey key = new ConfigKey(appId, env, version);
+        Instant now = Instant.now();
+        return Mono.defer(() -> repository.updateConfigs(key, newConfigs, now, expectedRevision))
+            .switchIfEmpty(Mono.fromCallable(() -> layers.updateLayer(key, newConfigs, now, expectedRevision)
+                    .orElse(null))
+                .subscribeOn(Schedulers.boundedElastic()))
+            .switchIfEmpty(Mono.defer(() -> missingOrConflict(key, expectedRevision)))
+            .flatMap(updated -> offEventLoop(() -> revisions.record(updated))
+                .then(Mono.fromRunnable(() -> cache.invalidate(key)))
+                .then(publishChange(updated, false))
+                .then(offEventLoop(() -> layers.rebuildDescendants(updated)))
+                .thenReturn(updated));
+    }
+
+    /**
+     * Atomically removes a config, as {@link RemoteConfigService#deleteConfig} does.
+     *
+     * @param appId            the application ID of the config to delete.
+     * @param env              the environment of the config to delete.
+     * @param version          the version of the config to delete.
+     * @param expectedRevision the revision the config must be at, or {@code null} to delete unconditionally.
+     * @return the deleted config, or a {@link RemoteConfigNotFoundException} or
+     * {@link RemoteConfigConflictException} error.
+     */
+    public Mono<RemoteConfig> deleteConfig(String appId, String env, String version, Long expectedRevision) {
+        ConfigKey key = new ConfigKey(appId, env, version);
+        return repository.deleteByKey(key, expectedRevision)
+            .switchIfEmpty(Mono.fromCallable(() -> layers.releaseUnused(key))
+                .subscribeOn(Schedulers.boundedElastic())
+                .filter(Boolean::booleanValue)
+                .flatMap(released -> repository.deleteByKey(key, expectedRevision)))
+            .switchIfEmpty(Mono.defer(() -> missingOrConflict(key, expectedRevision)))
+            .flatMap(config -> latestPointers.retreat(config)
+                .then(offEventLoop(() -> revisions.forget(key)))
+                .then(Mono.fromRunnable(() -> {
+                    cache.invalidate(key);
+                    cache.invalidateLatest(appId, env);
+                }))
+                .then(publishChange(config, true))
+                .thenReturn(config));
+    }
+
+    /**
+     * Streams the configurations of an app, or of every app.
+     *
+     * @param appId the application ID, or {@code null} for every app.
+     * @return the configurations.
+     */
+    public Flux<RemoteConfig> exportAll(String appId) {
+        return repository.streamAll(appId);
+    }
+
+    private <T> Mono<T> missingOrConflict(ConfigKey key, Long expectedRevision) {
+        RemoteConfigNotFoundException missing =
+            new RemoteConfigNotFoundException(key.appId(), key.env(), key.version());
+        if (expectedRevision == null)
+            return Mono.error(missing);
+        return repository.existsByAppIdAndEnvAndVersion(key.appId(), key.env(), key.version())
+            .flatMap(exists -> Mono.error(exists
+                ? new RemoteConfigConflictException(key.appId(), key.env(), key.version(), expectedRevision)
+                : missing));
+    }
+
+    private Mono<Void> publishChange(RemoteConfig config, boolean deleted) {
+        return offEventLoop(() -> eventPublisher.publishEvent(
+            new RemoteConfigChangedEvent(ConfigKey.of(config), config.getLastModDate(), deleted)));
+    }
+
+    /**
+     * Runs a blocking call on a bounded elastic thread.
+     */
+    private static Mono<Void> offEventLoop(Runnable call) {
+        return Mono.<Void>fromRunnable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Fails fast while the {@link LocalConfigStore} assumes the database unreachable, see
+     * {@link LocalConfigStore#checkDatabase()}.
+     */
+    private Mono<Void> checkDatabase() {
+        return Mono.fromRunnable(localStore::checkDatabase);
+    }
+
+    /**
+     * Serves a value read from the {@link LocalConfigStore} after a database failure, marking the exchange stale,
+     * or propagates the failure if the value was not copied.
+     */
+    private <T> Mono<T> stale(Optional<T> copy, DataAccessException e) {
+        localStore.recordFailure(e);
+        if (copy.isEmpty())
+            return Mono.error(e);
+        return Mono.deferContextual(context -> {
+            context.<StaleMarker>getOrEmpty(StaleMarker.class)
+                .ifPresent(marker -> localStore.copiedAt().ifPresent(marker::mark));
+            return Mono.just(copy.get());
+        });
+    }
+
+    private Mono<Instant> findLastModDate(ConfigKey key) {
+        return Mono.defer(() -> {
+            Optional<Instant> cached = cache.getLastModDate(key);
+            if (cached.isPresent())
+                return Mono.just(cached.get());
+            if (cache.isMissing(key))
+                return Mono.empty();
+            return freshnessLoads.execute(key, () -> {
+                long stamp = cache.stamp(key);
+                return checkDatabase()
+                    .then(repository.findFreshnessByAppIdAndEnvAndVersion(key.appId(), key.env(), key.version()))
+                    .map(ConfigFreshness::getLastModDate)
+                    .doOnNext(lastModDate -> cache.putLastModDate(key, lastModDate, stamp))
+                    .switchIfEmpty(Mono.fromRunnable(() -> cache.putMissing(key, stamp)));
+            });
+        });
+    }
+
+    private Mono<RemoteConfig> findSelected(ConfigKey key, ConfigSelection selection) {
+        return Mono.defer(() -> {
+            Optional<RemoteConfig> cached = cache.get(key);
+            if (cached.isPresent())
+                return Mono.just(selection.applyTo(cached.get()));
+            if (cache.isMissing(key))
+                return Mono.empty();
+            Optional<RemoteConfig> selected = cache.getSelected(key, selection);
+            if (selected.isPresent())
+                return Mono.just(selected.get());
+            return selectionLoads.execute(Map.entry(key, selection), () -> {
+                long stamp = cache.stamp(key);
+                return checkDatabase()
+                    .then(repository.findSelected(key, selection))
+                    .doOnNext(config -> cache.putSelected(selection, config, stamp))
+                    .switchIfEmpty(Mono.fromRunnable(() -> cache.putMissing(key, stamp)));
+            });
+        });
+    }
+
+    private Mono<RemoteConfig> findExact(ConfigKey key) {
+        return Mono.defer(() -> {
+            Optional<RemoteConfig> cached = cache.get(key);
+            if (cached.isPresent())
+                return Mono.just(cached.get());
+            if (cache.isMissing(key))
+                return Mono.empty();
+            return configLoads.execute(key, () -> {
+                long stamp = cache.stamp(key);
+                return checkDatabase()
+                    .then(repository.findByAppIdAndEnvAndVersion(key.appId(), key.env(), key.version()))
+                    .doOnNext(config -> cache.put(config, stamp))
+                    .switchIfEmpty(Mono.fromRunnable(() -> cache.putMissing(key, stamp)));
+            });
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package dev.yapm.blendberry.controller;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import dev.yapm.blendberry.cache.ConfigSelection;
+import dev.yapm.blendberry.cache.ConfigSnapshotCache;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.metrics.RemoteConfigMetrics;
+import dev.yapm.blendberry.service.ConfigRevisionService;
+import dev.yapm.blendberry.service.ReactiveConfigWatchService;
+import dev.yapm.blendberry.service.ReactiveRemoteConfigService;
+import dev.yapm.blendberry.service.RemoteConfigTransferService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReactiveRemoteConfigControllerTest {
+
+    private static final Instant MOD_DATE = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final BlendBerryProperties properties = new BlendBerryProperties();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ReactiveRemoteConfigService remoteConfigService = mock(ReactiveRemoteConfigService.class);
+
+    private final ReactiveRemoteConfigController controller = new ReactiveRemoteConfigController(
+        remoteConfigService, mock(ReactiveConfigWatchService.class), mock(RemoteConfigTransferService.class),
+        new ConfigSnapshotCache(JsonMapper.builder().findAndAddModules().build(), properties),
+        new RemoteConfigMetrics(registry, properties), mock(ConfigRevisionService.class));
+
+    private final RemoteConfig config = RemoteConfig.builder()
+        .appId("app").env("prod").version("1.0.0")
+        .configs(Map.of("a", 1))
+        .creationDate(MOD_DATE).lastModDate(MOD_DATE)
+        .revision(3L)
+        .build();
+
+    @Test
+    void configsAreServedWithTheirValidators() {
+        when(remoteConfigService.findOne("app", "prod", "1.0.0", ConfigSelection.ALL)).thenReturn(Mono.just(config));
+
+        ResponseEntity<?> response = getConfig(new HttpHeaders());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ConfigETag.of(config), response.getHeaders().getETag());
+        assertEquals(MOD_DATE.toEpochMilli(), response.getHeaders().getLastModified());
+        assertTrue(new String(bodyOf(response), StandardCharsets.UTF_8).contains("\"configs\":{\"a\":1}"));
+        assertEquals(1, registry.get("blendberry.config.payload.size").summary().count());
+    }
+
+    @Test
+    void matchingPreconditionsAreAnsweredWithoutAPayload() {
+        when(remoteConfigService.findOne("app", "prod", "1.0.0", ConfigSelection.ALL)).thenReturn(Mono.just(config));
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.setIfNoneMatch(ConfigETag.of(config));
+
+        ResponseEntity<?> response = getConfig(requestHeaders);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertTrue(registry.find("blendberry.config.payload.size").summaries().isEmpty());
+    }
+
+    @Test
+    void unknownConfigsAreNotFound() {
+        when(remoteConfigService.findOne(any(), any(), any(), any())).thenReturn(Mono.empty());
+
+        assertEquals(HttpStatus.NOT_FOUND, getConfig(new HttpHeaders()).getStatusCode());
+    }
+
+    private ResponseEntity<?> getConfig(HttpHeaders requestHeaders) {
+        return controller.getConfig("app", "prod", "1.0.0", null, requestHeaders).block();
+    }
+
+    private static byte[] bodyOf(ResponseEntity<?> response) {
+        return (byte[]) response.getBody();
+    }
+}
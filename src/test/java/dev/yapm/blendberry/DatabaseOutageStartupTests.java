@@ -0,0 +1,72 @@
+package dev.yapm.blendberry;
+
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.controller.StaleResponseAdvice;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.fallback.LocalConfigStore;
+import dev.yapm.blendberry.fallback.MongoReachability;
+import dev.yapm.blendberry.repository.RemoteConfigRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Starts a replica while nothing listens at the database address, as after a restart during an outage.
+ */
+@SpringBootTest(properties = {
+    "spring.data.mongodb.uri=mongodb://localhost:1",
+    "blendberry.mongo-timeouts.server-selection-timeout=200ms",
+    "blendberry.mongo-timeouts.connect-timeout=200ms"
+})
+@AutoConfigureMockMvc
+class DatabaseOutageStartupTests {
+
+    @TempDir
+    static Path directory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void localStore(DynamicPropertyRegistry registry) {
+        Path path = directory.resolve("configs.bin");
+        registry.add("blendberry.local-store.path", path::toString);
+
+        // The copy left on disk by the previous run of the replica.
+        RemoteConfig config = RemoteConfig.builder()
+            .appId("app").env("prod").version("1.0.0")
+            .configs(Map.of("a", 1))
+            .revision(1L)
+            .build();
+        RemoteConfigRepository repository = mock(RemoteConfigRepository.class);
+        when(repository.streamAll(null)).thenReturn(Stream.of(config));
+        BlendBerryProperties properties = new BlendBerryProperties();
+        properties.getLocalStore().setPath(path);
+        new LocalConfigStore(repository, mock(TaskScheduler.class), new MongoReachability(), properties).refresh();
+    }
+
+    @Test
+    void startsAndServesTheLocalCopy() throws Exception {
+        mockMvc.perform(get("/configs/prod").header("App-Id", "app").param("version", "1.0.0"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(StaleResponseAdvice.STALE_SINCE_HEADER))
+            .andExpect(jsonPath("$.configs.a").value(1));
+    }
+}
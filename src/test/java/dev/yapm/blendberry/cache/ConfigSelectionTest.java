@@ -0,0 +1,61 @@
+package dev.yapm.blendberry.cache;
+
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.exception.InvalidConfigSelectionException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigSelectionTest {
+
+    @Test
+    void selectorsAreNormalized() {
+        ConfigSelection selection = ConfigSelection.parse(
+            List.of("/limits/maxUploads", "flags", "/flags/darkMode", "a~b"));
+
+        assertEquals(List.of("/a~0b", "/flags", "/limits/maxUploads"), selection.pointers());
+        assertEquals(List.of("configs.a~b", "configs.flags", "configs.limits.maxUploads"), selection.fieldPaths());
+        assertEquals(selection, ConfigSelection.parse(List.of("flags", "/limits/maxUploads", "/a~0b")));
+        assertTrue(ConfigSelection.parse(null).isAll());
+    }
+
+    @Test
+    void selectorsThatCannotBeProjectedAreRejected() {
+        assertThrows(InvalidConfigSelectionException.class, () -> ConfigSelection.parse(List.of("a.b")));
+        assertThrows(InvalidConfigSelectionException.class, () -> ConfigSelection.parse(List.of("/$where")));
+        assertThrows(InvalidConfigSelectionException.class, () -> ConfigSelection.parse(List.of("/flags/")));
+    }
+
+    @Test
+    void applyToProjectsLikeTheDatabase() {
+        RemoteConfig config = RemoteConfig.builder()
+            .appId("app").env("prod").version("1.0.0")
+            .configs(Map.of(
+                "flags", Map.of("darkMode", true, "beta", false),
+                "limits", Map.of("maxUploads", 10),
+                "endpoints", List.of(Map.of("url", "a", "weight", 1), "b"),
+                "theme", "light"
+            ))
+            .creationDate(Instant.EPOCH).lastModDate(Instant.EPOCH)
+            .revision(3L)
+            .build();
+
+        RemoteConfig selected = ConfigSelection
+            .parse(List.of("/flags/darkMode", "/endpoints/url", "/theme/color", "missing"))
+            .applyTo(config);
+
+        assertEquals(Map.of(
+            "flags", Map.of("darkMode", true),
+            "endpoints", List.of(Map.of("url", "a"))
+        ), selected.getConfigs());
+        assertEquals(3L, selected.getRevision());
+        assertSame(config, ConfigSelection.ALL.applyTo(config));
+    }
+}
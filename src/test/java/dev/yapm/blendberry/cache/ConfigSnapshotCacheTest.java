@@ -0,0 +1,81 @@
+package dev.yapm.blendberry.cache;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigSnapshotCacheTest {
+
+    private static final Instant MOD_DATE = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final BlendBerryProperties properties = new BlendBerryProperties();
+
+    private final ConfigSnapshotCache snapshots =
+        new ConfigSnapshotCache(JsonMapper.builder().findAndAddModules().build(), properties);
+
+    @Test
+    void snapshotsAreReusedUntilTheConfigChanges() {
+        RemoteConfig config = config(Map.of("a", 1));
+        ConfigSnapshot snapshot = snapshots.get(config).orElseThrow();
+        assertSame(snapshot, snapshots.get(config(Map.of("a", 1))).orElseThrow());
+
+        RemoteConfig updated = config(Map.of("a", 2));
+        updated.setLastModDate(MOD_DATE.plusSeconds(1));
+        updated.setRevision(2L);
+        ConfigSnapshot rebuilt = snapshots.get(updated).orElseThrow();
+
+        assertNotSame(snapshot, rebuilt);
+        assertTrue(new String(rebuilt.json(), StandardCharsets.UTF_8).contains("\"configs\":{\"a\":2}"));
+    }
+
+    @Test
+    void selectionsAreSnapshottedSeparately() {
+        RemoteConfig config = config(Map.of("a", 1));
+        ConfigSelection selection = ConfigSelection.parse(List.of("a"));
+
+        assertNotSame(snapshots.get(config).orElseThrow(), snapshots.get(config, selection).orElseThrow());
+        assertSame(snapshots.get(config, selection).orElseThrow(), snapshots.get(config, selection).orElseThrow());
+    }
+
+    @Test
+    void gzipBodyInflatesToTheJsonBody() throws IOException {
+        ConfigSnapshot snapshot = snapshots.get(config(Map.of("a", 1))).orElseThrow();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzip()))) {
+            assertArrayEquals(snapshot.json(), gzip.readAllBytes());
+        }
+    }
+
+    @Test
+    void oversizedConfigsAreServedWithoutSnapshot() {
+        properties.getSnapshot().setMaximumEntryBytes(DataSize.ofBytes(16));
+        ConfigSnapshotCache small = new ConfigSnapshotCache(JsonMapper.builder().findAndAddModules().build(),
+            properties);
+
+        assertTrue(small.get(config(Map.of("a", 1))).isEmpty());
+    }
+
+    private static RemoteConfig config(Map<String, Object> configs) {
+        return RemoteConfig.builder()
+            .appId("app").env("prod").version("1.0.0")
+            .configs(configs)
+            .creationDate(MOD_DATE).lastModDate(MOD_DATE)
+            .revision(1L)
+            .build();
+    }
+}
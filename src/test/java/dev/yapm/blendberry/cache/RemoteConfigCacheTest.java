@@ -0,0 +1,67 @@
+package dev.yapm.blendberry.cache;
+
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemoteConfigCacheTest {
+
+    private final RemoteConfigCache cache = new RemoteConfigCache(new BlendBerryProperties());
+
+    private final ConfigKey key = new ConfigKey("app", "prod", "1.0.0");
+
+    @Test
+    void loadStartedBeforeAnInvalidationIsNotCached() {
+        long stamp = cache.stamp(key);
+        RemoteConfig loadedBeforeWrite = config(1L);
+        cache.invalidate(key);
+        cache.put(loadedBeforeWrite, stamp);
+        cache.putSelected(ConfigSelection.parse(List.of("a")), loadedBeforeWrite, stamp);
+        cache.putMissing(key, stamp);
+
+        assertTrue(cache.get(key).isEmpty());
+        assertTrue(cache.getSelected(key, ConfigSelection.parse(List.of("a"))).isEmpty());
+        assertFalse(cache.isMissing(key));
+
+        RemoteConfig loadedAfterWrite = config(2L);
+        cache.put(loadedAfterWrite, cache.stamp(key));
+        assertEquals(2L, cache.get(key).orElseThrow().getRevision());
+    }
+
+    @Test
+    void latestLoadIsDroppedWhenItsEnvironmentChanges() {
+        long stamp = cache.latestStamp("app", "prod");
+        cache.invalidate(new ConfigKey("app", "prod", "2.0.0"));
+        cache.putLatest(config(1L), stamp);
+        cache.putLatestMissing("app", "prod", stamp);
+
+        assertTrue(cache.getLatestVersion("app", "prod").isEmpty());
+        assertTrue(cache.get(key).isEmpty());
+        assertFalse(cache.isLatestMissing("app", "prod"));
+    }
+
+    @Test
+    void invalidationAfterAPutEvictsIt() {
+        cache.put(config(1L), cache.stamp(key));
+        cache.invalidate(key);
+
+        assertTrue(cache.get(key).isEmpty());
+    }
+
+    private RemoteConfig config(long revision) {
+        return RemoteConfig.builder()
+            .appId(key.appId()).env(key.env()).version(key.version())
+            .configs(Map.of("a", revision))
+            .creationDate(Instant.EPOCH).lastModDate(Instant.EPOCH)
+            .revision(revision)
+            .build();
+    }
+}
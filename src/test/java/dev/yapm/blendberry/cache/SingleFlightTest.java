@@ -0,0 +1,75 @@
+package dev.yapm.blendberry.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger coalesced = new AtomicInteger();
+        SingleFlight<String, Integer> flight = new SingleFlight<>(coalesced::incrementAndGet);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<Integer> leader = executor.submit(() -> flight.execute("key", () -> {
+                loading.countDown();
+                await(release);
+                return loads.incrementAndGet();
+            }));
+            loading.await(5, TimeUnit.SECONDS);
+
+            List<Future<Integer>> followers = new ArrayList<>();
+            for (int i = 0; i < 7; i++)
+                followers.add(executor.submit(() -> flight.execute("key", loads::incrementAndGet)));
+            while (coalesced.get() < followers.size())
+                Thread.onSpinWait();
+            release.countDown();
+
+            assertEquals(1, leader.get(5, TimeUnit.SECONDS));
+            for (Future<Integer> follower : followers)
+                assertEquals(1, follower.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void keyIsReleasedAfterLoad() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(() -> {});
+        assertEquals(1, flight.execute("key", () -> 1));
+        assertEquals(2, flight.execute("key", () -> 2));
+    }
+
+    @Test
+    void exceptionsArePropagated() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(() -> {});
+        assertThrows(IllegalStateException.class, () -> flight.execute("key", () -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals(3, flight.execute("key", () -> 3));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
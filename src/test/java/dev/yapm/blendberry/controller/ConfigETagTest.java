@@ -0,0 +1,92 @@
+package dev.yapm.blendberry.controller;
+
+import dev.yapm.blendberry.entity.RemoteConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigETagTest {
+
+    private final RemoteConfig config = RemoteConfig.builder()
+        .appId("app").env("prod").version("1.0.0")
+        .configs(Map.of("a", 1))
+        .creationDate(Instant.EPOCH).lastModDate(Instant.parse("2024-05-01T10:00:00.123Z"))
+        .revision(7L)
+        .build();
+
+    @Test
+    void tagCarriesTheRevisionAndMovesWithTheContent() {
+        String etag = ConfigETag.of(config);
+
+        assertTrue(etag.startsWith("\"7-"));
+        assertEquals(7L, ConfigETag.expectedRevision(etag));
+        config.setLastModDate(config.getLastModDate().plusMillis(1));
+        assertNotEquals(etag, ConfigETag.of(config));
+    }
+
+    @Test
+    void ifMatchWithoutTagHasNoPrecondition() {
+        assertNull(ConfigETag.expectedRevision(null));
+        assertNull(ConfigETag.expectedRevision("*"));
+        assertEquals(-1L, ConfigETag.expectedRevision("\"foreign\""));
+    }
+
+    @Test
+    void ifNoneMatchTakesPrecedenceOverIfModifiedSince() {
+        String etag = ConfigETag.of(config);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch("W/" + etag);
+        assertTrue(ConfigETag.notModified(headers, etag, config.getLastModDate()));
+
+        headers.setIfNoneMatch("\"6-stale\"");
+        headers.setIfModifiedSince(config.getLastModDate().plusSeconds(60));
+        assertFalse(ConfigETag.notModified(headers, etag, config.getLastModDate()));
+    }
+
+    @Test
+    void gzipTagIsDistinctButMatchesEitherEncoding() {
+        String etag = ConfigETag.of(config);
+        String gzipTag = ConfigETag.gzip(etag);
+        assertNotEquals(etag, gzipTag);
+        assertTrue(gzipTag.endsWith("-gz\""));
+        assertEquals(7L, ConfigETag.expectedRevision(gzipTag));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(gzipTag);
+        assertTrue(ConfigETag.notModified(headers, etag, config.getLastModDate()));
+        headers.setIfNoneMatch(etag);
+        assertTrue(ConfigETag.notModified(headers, gzipTag, config.getLastModDate()));
+    }
+
+    @Test
+    void patchTagNamesItsBaseAndNeverMatchesTheDocument() {
+        String etag = ConfigETag.of(config);
+        String patchTag = ConfigETag.patch(etag, 5);
+        assertTrue(patchTag.endsWith("-patch-5\""));
+        assertEquals(7L, ConfigETag.expectedRevision(patchTag));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(patchTag);
+        assertFalse(ConfigETag.notModified(headers, etag, config.getLastModDate()));
+    }
+
+    @Test
+    void ifModifiedSinceIsComparedToTheSecond() {
+        String etag = ConfigETag.of(config);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfModifiedSince(Instant.parse("2024-05-01T10:00:00Z"));
+        assertTrue(ConfigETag.notModified(headers, etag, config.getLastModDate()));
+
+        headers.setIfModifiedSince(Instant.parse("2024-05-01T09:59:59Z"));
+        assertFalse(ConfigETag.notModified(headers, etag, config.getLastModDate()));
+        assertFalse(ConfigETag.notModified(new HttpHeaders(), etag, config.getLastModDate()));
+    }
+}
@@ -0,0 +1,144 @@
+package dev.yapm.blendberry.controller;
+
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.cache.ConfigSnapshotCache;
+import dev.yapm.blendberry.cache.RemoteConfigCache;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.exception.GlobalExceptionHandler;
+import dev.yapm.blendberry.fallback.LocalConfigStore;
+import dev.yapm.blendberry.metrics.RemoteConfigMetrics;
+import dev.yapm.blendberry.repository.RemoteConfigRepository;
+import dev.yapm.blendberry.service.ConfigLayerService;
+import dev.yapm.blendberry.service.ConfigRevisionService;
+import dev.yapm.blendberry.service.ConfigWatchService;
+import dev.yapm.blendberry.service.LatestConfigPointerService;
+import dev.yapm.blendberry.service.RemoteConfigService;
+import dev.yapm.blendberry.service.RemoteConfigTransferService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RemoteConfigControllerTest {
+
+    private static final Instant MOD_DATE = Instant.parse("2024-05-01T10:00:00Z");
+
+    private static final ConfigKey KEY = new ConfigKey("app", "prod", "1.0.0");
+
+    private final BlendBerryProperties properties = new BlendBerryProperties();
+
+    private final RemoteConfigRepository repository = mock(RemoteConfigRepository.class);
+
+    private final RemoteConfigMetrics metrics = new RemoteConfigMetrics(new SimpleMeterRegistry(), properties);
+
+    private final RemoteConfigService service = new RemoteConfigService(
+        repository, new RemoteConfigCache(properties), mock(LatestConfigPointerService.class), event -> {},
+        metrics, mock(LocalConfigStore.class), mock(ConfigRevisionService.class), mock(ConfigLayerService.class));
+
+    private final MockMvc mockMvc = MockMvcBuilders
+        .standaloneSetup(new RemoteConfigController(service, mock(ConfigWatchService.class),
+            mock(RemoteConfigTransferService.class), mock(ConfigSnapshotCache.class), metrics,
+            mock(ConfigRevisionService.class)))
+        .setControllerAdvice(new GlobalExceptionHandler(metrics))
+        .build();
+
+    @Test
+    void updatesApplyToTheRevisionOfTheIfMatchTag() throws Exception {
+        RemoteConfig updated = config(4L);
+        when(repository.updateConfigs(eq(KEY), eq(Map.of("a", 2)), any(Instant.class), eq(3L)))
+            .thenReturn(Optional.of(updated));
+
+        mockMvc.perform(patch("/configs/prod")
+                .header("App-Id", "app")
+                .param("version", "1.0.0")
+                .header(HttpHeaders.IF_MATCH, ConfigETag.of(config(3L)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"a\":2}"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, ConfigETag.of(updated)))
+            .andExpect(jsonPath("$.revision").value(4));
+    }
+
+    @Test
+    void updatesOfAnotherRevisionFailThePrecondition() throws Exception {
+        when(repository.updateConfigs(eq(KEY), any(), any(Instant.class), eq(3L))).thenReturn(Optional.empty());
+        when(repository.existsByAppIdAndEnvAndVersion("app", "prod", "1.0.0")).thenReturn(true);
+
+        mockMvc.perform(patch("/configs/prod")
+                .header("App-Id", "app")
+                .param("version", "1.0.0")
+                .header(HttpHeaders.IF_MATCH, ConfigETag.of(config(3L)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"a\":2}"))
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void deletesApplyToTheRevisionOfTheIfMatchTag() throws Exception {
+        when(repository.deleteByKey(KEY, 3L)).thenReturn(Optional.of(config(3L)));
+
+        mockMvc.perform(delete("/configs/prod")
+                .header("App-Id", "app")
+                .param("version", "1.0.0")
+                .header(HttpHeaders.IF_MATCH, ConfigETag.of(config(3L))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.revision").value(3));
+    }
+
+    @Test
+    void deletesOfAnotherRevisionFailThePrecondition() throws Exception {
+        when(repository.deleteByKey(KEY, 3L)).thenReturn(Optional.empty());
+        when(repository.existsByAppIdAndEnvAndVersion("app", "prod", "1.0.0")).thenReturn(true);
+
+        mockMvc.perform(delete("/configs/prod")
+                .header("App-Id", "app")
+                .param("version", "1.0.0")
+                .header(HttpHeaders.IF_MATCH, ConfigETag.of(config(3L))))
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void conditionalWritesOfMissingConfigsAreNotFound() throws Exception {
+        when(repository.deleteByKey(KEY, 3L)).thenReturn(Optional.empty());
+        when(repository.updateConfigs(eq(KEY), any(), any(Instant.class), eq(3L))).thenReturn(Optional.empty());
+
+        mockMvc.perform(delete("/configs/prod")
+                .header("App-Id", "app")
+                .param("version", "1.0.0")
+                .header(HttpHeaders.IF_MATCH, ConfigETag.of(config(3L))))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(patch("/configs/prod")
+                .header("App-Id", "app")
+                .param("version", "1.0.0")
+                .header(HttpHeaders.IF_MATCH, ConfigETag.of(config(3L)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"a\":2}"))
+            .andExpect(status().isNotFound());
+    }
+
+    private static RemoteConfig config(long revision) {
+        return RemoteConfig.builder()
+            .appId("app").env("prod").version("1.0.0")
+            .configs(Map.of("a", 1))
+            .creationDate(MOD_DATE).lastModDate(MOD_DATE)
+            .revision(revision)
+            .build();
+    }
+}
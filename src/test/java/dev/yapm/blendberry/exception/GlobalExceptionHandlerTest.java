@@ -0,0 +1,52 @@
+package dev.yapm.blendberry.exception;
+
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.metrics.RemoteConfigMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GlobalExceptionHandlerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final GlobalExceptionHandler handler =
+        new GlobalExceptionHandler(new RemoteConfigMetrics(registry, new BlendBerryProperties()));
+
+    @Test
+    void errorResponsesAreCountedPerErrorType() {
+        ResponseEntity<Map<String, Object>> notFound =
+            handler.handleRCNFException(new RemoteConfigNotFoundException("app", "prod", "1.0.0"));
+        handler.handleRCNFException(new RemoteConfigNotFoundException("app", "prod", "2.0.0"));
+        ResponseEntity<Map<String, Object>> conflict =
+            handler.handleRCCException(new RemoteConfigConflictException("app", "prod", "1.0.0", 3L));
+        handler.handleDataAccessException(new DataAccessResourceFailureException("timed out"));
+
+        assertEquals(HttpStatus.NOT_FOUND, notFound.getStatusCode());
+        assertEquals("RemoteConfigNotFound", notFound.getBody().get("error"));
+        assertEquals(HttpStatus.PRECONDITION_FAILED, conflict.getStatusCode());
+        assertEquals(2, errors("RemoteConfigNotFound"));
+        assertEquals(1, errors("RemoteConfigConflict"));
+        assertEquals(1, errors("DatabaseError"));
+    }
+
+    @Test
+    void respondCountsTheErrorFieldOfAnyBody() {
+        ResponseEntity<Map<String, String>> response = GlobalExceptionHandler.respond(
+            new RemoteConfigMetrics(registry, new BlendBerryProperties()), Map.of("error", "Custom"),
+            HttpStatus.BAD_REQUEST);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(1, errors("Custom"));
+    }
+
+    private double errors(String type) {
+        return registry.get("blendberry.errors").tags("error", type).counter().count();
+    }
+}
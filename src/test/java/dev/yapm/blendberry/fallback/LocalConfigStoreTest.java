@@ -0,0 +1,91 @@
+package dev.yapm.blendberry.fallback;
+
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterConnectionMode;
+import com.mongodb.connection.ClusterDescription;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ClusterType;
+import com.mongodb.connection.ServerConnectionState;
+import com.mongodb.connection.ServerDescription;
+import com.mongodb.event.ClusterDescriptionChangedEvent;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.repository.RemoteConfigRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class LocalConfigStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final MongoReachability reachability = new MongoReachability();
+
+    @Test
+    void readsSkipTheDatabaseForTheRetryIntervalAfterAnOutage() throws InterruptedException {
+        LocalConfigStore store = store(Duration.ofMillis(200));
+        assertDoesNotThrow(store::checkDatabase);
+
+        store.recordFailure(new InvalidDataAccessApiUsageException("rejected query"));
+        assertDoesNotThrow(store::checkDatabase);
+
+        DataAccessResourceFailureException outage = new DataAccessResourceFailureException("timed out");
+        store.recordFailure(outage);
+        DatabaseOutageException thrown = assertThrows(DatabaseOutageException.class, store::checkDatabase);
+        // Failing fast does not extend the outage.
+        store.recordFailure(thrown);
+
+        Thread.sleep(250);
+        assertDoesNotThrow(store::checkDatabase);
+    }
+
+    @Test
+    void outagesAreIgnoredWithoutALocalCopy() {
+        BlendBerryProperties properties = new BlendBerryProperties();
+        properties.getLocalStore().setEnabled(false);
+        LocalConfigStore store = new LocalConfigStore(mock(RemoteConfigRepository.class), mock(TaskScheduler.class),
+            new MongoReachability(), properties);
+
+        store.recordFailure(new DataAccessResourceFailureException("timed out"));
+        assertDoesNotThrow(store::checkDatabase);
+    }
+
+    @Test
+    void poolWaitTimeoutsAreOutagesOnlyWhenNoServerIsReachable() {
+        LocalConfigStore store = store(Duration.ofMinutes(1));
+        DataAccessResourceFailureException busy = new DataAccessResourceFailureException("timed out",
+            new MongoTimeoutException("Timed out while waiting for a connection"));
+
+        store.recordFailure(busy);
+        assertDoesNotThrow(store::checkDatabase);
+
+        ServerDescription unreachable = ServerDescription.builder()
+            .address(new ServerAddress())
+            .state(ServerConnectionState.CONNECTING)
+            .build();
+        reachability.clusterDescriptionChanged(new ClusterDescriptionChangedEvent(new ClusterId(),
+            new ClusterDescription(ClusterConnectionMode.SINGLE, ClusterType.UNKNOWN, List.of(unreachable)),
+            new ClusterDescription(ClusterConnectionMode.SINGLE, ClusterType.UNKNOWN, List.of())));
+        store.recordFailure(busy);
+        assertThrows(DatabaseOutageException.class, store::checkDatabase);
+    }
+
+    private LocalConfigStore store(Duration retryInterval) {
+        BlendBerryProperties properties = new BlendBerryProperties();
+        properties.getLocalStore().setPath(directory.resolve("configs.bin"));
+        properties.getLocalStore().setOutageRetryInterval(retryInterval);
+        return new LocalConfigStore(mock(RemoteConfigRepository.class), mock(TaskScheduler.class), reachability,
+            properties);
+    }
+}
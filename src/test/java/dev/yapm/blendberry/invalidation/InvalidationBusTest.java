@@ -0,0 +1,132 @@
+package dev.yapm.blendberry.invalidation;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.cache.RemoteConfigCache;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.service.RemoteConfigBatchChangedEvent;
+import dev.yapm.blendberry.service.RemoteConfigChangedEvent;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InvalidationBusTest {
+
+    private static final Instant MOD_DATE = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final BlendBerryProperties properties = new BlendBerryProperties();
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> collection = mock(MongoCollection.class);
+
+    private final RemoteConfigCache cache = new RemoteConfigCache(properties);
+
+    private final List<Object> events = new ArrayList<>();
+
+    private final List<Runnable> flushes = new ArrayList<>();
+
+    private final InvalidationBus bus =
+        new InvalidationBus(mongoTemplate, cache, events::add, flushes::add, properties);
+
+    InvalidationBusTest() {
+        when(mongoTemplate.getCollection("invalidations")).thenReturn(collection);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void localChangesAreWrittenOffTheCallerWithAServerAssignedSequence() {
+        ConfigKey key = new ConfigKey("app", "prod", "1.0.0");
+        bus.onConfigChanged(new RemoteConfigChangedEvent(key, MOD_DATE, false));
+        bus.onConfigChanged(new RemoteConfigChangedEvent(key, MOD_DATE, false, true));
+        verify(collection, never()).insertMany(anyList(), any(InsertManyOptions.class));
+
+        scheduledFlush().run();
+
+        ArgumentCaptor<List<Document>> written = ArgumentCaptor.forClass(List.class);
+        verify(collection).insertMany(written.capture(), any(InsertManyOptions.class));
+        assertEquals(1, written.getValue().size());
+        Document invalidation = written.getValue().get(0);
+        assertEquals("seq", invalidation.keySet().iterator().next());
+        assertEquals(new BsonTimestamp(), invalidation.get("seq"));
+        assertEquals("1.0.0", invalidation.getString("version"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void changesQueuedBeforeAFlushAreWrittenAtOnce() {
+        bus.onConfigChanged(new RemoteConfigChangedEvent(new ConfigKey("app", "dev", "1.0.0"), MOD_DATE, false));
+        bus.onConfigsChanged(new RemoteConfigBatchChangedEvent(List.of(
+            new RemoteConfigChangedEvent(new ConfigKey("app", "prod", "1.0.0"), MOD_DATE, false),
+            new RemoteConfigChangedEvent(new ConfigKey("app", "qa", "1.0.0"), MOD_DATE, false))));
+
+        scheduledFlush().run();
+
+        ArgumentCaptor<List<Document>> written = ArgumentCaptor.forClass(List.class);
+        verify(collection).insertMany(written.capture(), any(InsertManyOptions.class));
+        assertEquals(3, written.getValue().size());
+        verify(collection, never()).insertOne(any(Document.class));
+    }
+
+    @Test
+    void pendingChangesAreWrittenOnStop() {
+        bus.onConfigChanged(new RemoteConfigChangedEvent(new ConfigKey("app", "prod", "1.0.0"), MOD_DATE, false));
+
+        bus.stop();
+
+        verify(collection).insertMany(anyList(), any(InsertManyOptions.class));
+    }
+
+    @Test
+    void invalidationsOfOtherReplicasEvictAndWakeWatchers() {
+        ConfigKey key = new ConfigKey("app", "prod", "1.0.0");
+        RemoteConfig config = RemoteConfig.builder()
+            .appId("app").env("prod").version("1.0.0")
+            .configs(Map.of())
+            .creationDate(MOD_DATE).lastModDate(MOD_DATE)
+            .revision(1L)
+            .build();
+        cache.put(config, cache.stamp(key));
+        assertTrue(cache.get(key).isPresent());
+
+        bus.apply(new Document("origin", "other-replica")
+            .append("appId", "app")
+            .append("env", "prod")
+            .append("version", "1.0.0")
+            .append("lastModDate", Date.from(MOD_DATE))
+            .append("deleted", false));
+
+        assertTrue(cache.get(key).isEmpty());
+        assertEquals(1, events.size());
+        RemoteConfigChangedEvent event = assertInstanceOf(RemoteConfigChangedEvent.class, events.get(0));
+        assertTrue(event.remote());
+        assertEquals(key, event.key());
+        verify(collection, never()).insertMany(anyList(), any(InsertManyOptions.class));
+    }
+
+    private Runnable scheduledFlush() {
+        assertEquals(1, flushes.size());
+        return flushes.get(0);
+    }
+}
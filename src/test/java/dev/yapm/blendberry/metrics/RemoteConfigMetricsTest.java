@@ -0,0 +1,66 @@
+package dev.yapm.blendberry.metrics;
+
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.exception.RemoteConfigNotFoundException;
+import dev.yapm.blendberry.service.ConfigStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RemoteConfigMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final BlendBerryProperties properties = new BlendBerryProperties();
+
+    private final RemoteConfigMetrics metrics = new RemoteConfigMetrics(registry, properties);
+
+    @Test
+    void serviceCallsAreTimedPerOutcomeWithoutTheAppId() {
+        metrics.time("findOne", "app", "prod", () -> "found");
+        assertThrows(RemoteConfigNotFoundException.class, () -> metrics.time("findOne", "app", "prod", () -> {
+            throw new RemoteConfigNotFoundException("app", "prod", "1.0.0");
+        }));
+        assertThrows(IllegalStateException.class, () -> metrics.time("findOne", "app", "prod", () -> {
+            throw new IllegalStateException();
+        }));
+
+        for (String outcome : new String[] {"success", "not_found", "error"})
+            assertEquals(1, registry.get("blendberry.service.calls")
+                .tags("operation", "findOne", "env", "prod", "outcome", outcome)
+                .timer().count());
+        assertNull(registry.find("blendberry.service.calls").tagKeys("appId").timer());
+    }
+
+    @Test
+    void appIdTagIsOptIn() {
+        properties.getMetrics().setTagAppId(true);
+        RemoteConfigMetrics tagged = new RemoteConfigMetrics(registry, properties);
+
+        tagged.time("findOne", "app", "prod", () -> "found");
+
+        assertEquals(1, registry.get("blendberry.service.calls").tags("appId", "app").timer().count());
+    }
+
+    @Test
+    void lookupsPayloadSizesAndErrorsAreCounted() {
+        metrics.countLookup("app", "prod", ConfigStatus.UP_TO_DATE);
+        metrics.countLookup("app", "prod", ConfigStatus.UP_TO_DATE);
+        metrics.countLookup("app", "prod", ConfigStatus.NEEDS_TO_UPDATE);
+        metrics.recordPayloadSize("app", "prod", "gzip", 120);
+        metrics.coalescedLoadCounter("config").run();
+        metrics.countError("RemoteConfigNotFound");
+        metrics.countError("RemoteConfigNotFound");
+
+        assertEquals(2, registry.get("blendberry.lookup.outcomes").tags("outcome", "up_to_date").counter().count());
+        assertEquals(1, registry.get("blendberry.lookup.outcomes").tags("outcome", "needs_to_update").counter()
+            .count());
+        assertEquals(120, registry.get("blendberry.config.payload.size").tags("encoding", "gzip").summary()
+            .totalAmount());
+        assertEquals(1, registry.get("blendberry.loads.coalesced").tags("operation", "config").counter().count());
+        assertEquals(2, registry.get("blendberry.errors").tags("error", "RemoteConfigNotFound").counter().count());
+    }
+}
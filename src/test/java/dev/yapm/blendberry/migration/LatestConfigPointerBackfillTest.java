@@ -0,0 +1,79 @@
+package dev.yapm.blendberry.migration;
+
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.service.LatestConfigPointerService;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LatestConfigPointerBackfillTest {
+
+    private final LatestConfigPointerService latestPointers = mock(LatestConfigPointerService.class);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    private final TaskScheduler scheduler = mock(TaskScheduler.class);
+
+    private final LatestConfigPointerBackfill backfill =
+        new LatestConfigPointerBackfill(latestPointers, mongoTemplate, scheduler, new BlendBerryProperties());
+
+    @Test
+    void backfillLeavesAMarker() {
+        backfill.apply();
+
+        verify(latestPointers).rebuildAll();
+        ArgumentCaptor<Object> marker = ArgumentCaptor.forClass(Object.class);
+        verify(mongoTemplate).save(marker.capture(), eq(LatestConfigPointerBackfill.MIGRATIONS_COLLECTION));
+        Document document = assertInstanceOf(Document.class, marker.getValue());
+        assertEquals(LatestConfigPointerBackfill.MARKER_ID, document.get("_id"));
+    }
+
+    @Test
+    void markedDatabasesAreNotBackfilledAgain() {
+        when(mongoTemplate.exists(any(Query.class), eq(LatestConfigPointerBackfill.MIGRATIONS_COLLECTION)))
+            .thenReturn(true);
+
+        backfill.apply();
+
+        verify(latestPointers, never()).rebuildAll();
+        verify(mongoTemplate, never()).save(any(), any(String.class));
+    }
+
+    @Test
+    void backfillWaitsForTheDatabase() {
+        when(latestPointers.rebuildAll())
+            .thenThrow(new DataAccessResourceFailureException("timed out"))
+            .thenReturn(1);
+
+        backfill.schedule();
+        scheduled(1).run();
+        verify(mongoTemplate, never()).save(any(), any(String.class));
+
+        scheduled(2).run();
+        verify(mongoTemplate).save(any(), eq(LatestConfigPointerBackfill.MIGRATIONS_COLLECTION));
+    }
+
+    private Runnable scheduled(int attempts) {
+        ArgumentCaptor<Runnable> attempt = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(attempts)).schedule(attempt.capture(), any(Instant.class));
+        List<Runnable> all = attempt.getAllValues();
+        return all.get(all.size() - 1);
+    }
+}
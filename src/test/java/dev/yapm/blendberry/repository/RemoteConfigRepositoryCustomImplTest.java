@@ -0,0 +1,54 @@
+package dev.yapm.blendberry.repository;
+
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class RemoteConfigRepositoryCustomImplTest {
+
+    private static final ConfigKey KEY = new ConfigKey("app", "prod", "1.0.0");
+
+    @Test
+    void documentsStoredBeforeRevisionsMatchRevisionZero() {
+        Document query = RemoteConfigRepositoryCustomImpl.matching(KEY, 0L).getQueryObject();
+
+        assertEquals(new Document("$in", Arrays.asList(0L, null)), query.get("revision"));
+    }
+
+    @Test
+    void otherRevisionsMatchExactly() {
+        Document query = RemoteConfigRepositoryCustomImpl.matching(KEY, 3L).getQueryObject();
+
+        assertEquals(new Document("appId", "app").append("env", "prod").append("version", "1.0.0")
+            .append("revision", 3L), query);
+    }
+
+    @Test
+    void withoutAnExpectedRevisionAnyRevisionMatches() {
+        assertFalse(RemoteConfigRepositoryCustomImpl.matching(KEY, null).getQueryObject().containsKey("revision"));
+    }
+
+    @Test
+    void deletesSkipConfigsOthersAreLayeredOn() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+        new RemoteConfigRepositoryCustomImpl(mongoTemplate).deleteByKey(KEY, 3L);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndRemove(query.capture(), eq(RemoteConfig.class));
+        assertEquals(3L, query.getValue().getQueryObject().get("revision"));
+        assertEquals(new Document("$ne", true), query.getValue().getQueryObject().get("inherited"));
+    }
+}
@@ -0,0 +1,123 @@
+package dev.yapm.blendberry.service;
+
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.cache.RemoteConfigCache;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.ConfigParent;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.exception.RemoteConfigInUseException;
+import dev.yapm.blendberry.repository.RemoteConfigRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ConfigLayerServiceTest {
+
+    private static final ConfigKey BASE = new ConfigKey("app", "prod", "1.0.0");
+
+    private final BlendBerryProperties properties = new BlendBerryProperties();
+
+    private final RemoteConfigRepository repository = mock(RemoteConfigRepository.class);
+
+    private final ConfigLayerService layers = new ConfigLayerService(repository, new RemoteConfigCache(properties),
+        mock(ConfigRevisionService.class), event -> { }, properties);
+
+    @Test
+    void layerIsDeepMergedOverTheParentView() {
+        Map<String, Object> base = Map.of(
+            "flags", Map.of("darkMode", false, "beta", false),
+            "endpoints", List.of("a", "b"),
+            "theme", "light",
+            "legacy", true
+        );
+        Map<String, Object> layer = new HashMap<>();
+        layer.put("flags", Map.of("beta", true));
+        layer.put("endpoints", List.of("c"));
+        layer.put("legacy", null);
+        layer.put("region", "eu");
+
+        assertEquals(Map.of(
+            "flags", Map.of("darkMode", false, "beta", true),
+            "endpoints", List.of("c"),
+            "theme", "light",
+            "region", "eu"
+        ), ConfigLayerService.merge(base, layer));
+    }
+
+    @Test
+    void missingSidesAreTreatedAsEmpty() {
+        assertEquals(Map.of("a", 1), ConfigLayerService.merge(null, Map.of("a", 1)));
+        assertEquals(Map.of("a", 1), ConfigLayerService.merge(Map.of("a", 1), null));
+        assertEquals(Map.of("a", Map.of("b", 2)),
+            ConfigLayerService.merge(Map.of("a", 1), Map.of("a", Map.of("b", 2))));
+    }
+
+    @Test
+    void writingAChildFlagsItsParent() {
+        when(repository.findByAppIdAndEnvAndVersion("app", "prod", "1.0.0"))
+            .thenReturn(Optional.of(config(BASE, Map.of("a", 1), false)));
+        RemoteConfig child = config(new ConfigKey("app", "prod-eu", "1.0.0"), Map.of("b", 2), false);
+        child.setParent(new ConfigParent("prod", "1.0.0"));
+
+        layers.prepare(child);
+
+        assertEquals(Map.of("a", 1, "b", 2), child.getConfigs());
+        verify(repository).markInherited(List.of(BASE));
+    }
+
+    @Test
+    void onlyInheritedConfigsAreLookedUpForChildren() {
+        layers.rebuildDescendants(config(BASE, Map.of("a", 1), false));
+        verify(repository, never()).findChildren(any());
+
+        when(repository.findChildren(BASE)).thenReturn(List.of());
+        layers.rebuildDescendants(config(BASE, Map.of("a", 1), true));
+        verify(repository).findChildren(BASE);
+    }
+
+    @Test
+    void savingAnUnlayeredConfigDoesNotQueryTheDatabase() {
+        layers.prepare(config(BASE, Map.of("a", 1), false));
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void configsWithChildrenAreNotReleasedForDeletion() {
+        when(repository.hasChildren(BASE)).thenReturn(true);
+
+        assertThrows(RemoteConfigInUseException.class, () -> layers.releaseUnused(BASE));
+        verify(repository, never()).clearInherited(any());
+    }
+
+    @Test
+    void staleInheritedFlagsAreClearedForDeletion() {
+        when(repository.clearInherited(BASE)).thenReturn(true);
+
+        assertTrue(layers.releaseUnused(BASE));
+    }
+
+    private static RemoteConfig config(ConfigKey key, Map<String, Object> configs, boolean inherited) {
+        return RemoteConfig.builder()
+            .appId(key.appId()).env(key.env()).version(key.version())
+            .configs(configs)
+            .creationDate(Instant.EPOCH).lastModDate(Instant.EPOCH)
+            .revision(0L)
+            .inherited(inherited)
+            .build();
+    }
+}
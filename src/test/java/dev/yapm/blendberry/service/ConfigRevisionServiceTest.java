@@ -0,0 +1,104 @@
+package dev.yapm.blendberry.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.ConfigRevision;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.metrics.RemoteConfigMetrics;
+import dev.yapm.blendberry.repository.ConfigRevisionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConfigRevisionServiceTest {
+
+    private static final Instant CREATED = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final BlendBerryProperties properties = new BlendBerryProperties();
+
+    private final ConfigRevisionRepository repository = mock(ConfigRevisionRepository.class);
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    private final TaskScheduler scheduler = mock(TaskScheduler.class);
+
+    private final ConfigRevisionService service = new ConfigRevisionService(repository, mongoTemplate, objectMapper,
+        scheduler, new RemoteConfigMetrics(new SimpleMeterRegistry(), properties), properties);
+
+    private final RemoteConfig current = config("1.1.0", 3L, Map.of("a", 1, "b", 2));
+
+    @Test
+    void copiesOfAnotherVersionAreNeverCurrent() {
+        assertTrue(service.isCurrent(current, "1.1.0", 3L, null));
+        assertFalse(service.isCurrent(current, "1.0.0", 3L, null));
+        assertFalse(service.isCurrent(current, "latest", 3L, null));
+        assertFalse(service.isCurrent(current, "latest", null, current.getLastModDate()));
+    }
+
+    @Test
+    void copiesOfAnotherVersionGetTheFullDocument() {
+        assertTrue(service.mergePatch(current, "1.0.0", 2L, null).isEmpty());
+        assertTrue(service.mergePatch(current, "latest", 2L, null).isEmpty());
+        verify(repository, never())
+            .findByAppIdAndEnvAndVersionAndRevision(anyString(), anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    void patchesNameTheirBaseRevision() {
+        RemoteConfig base = config("1.1.0", 2L, Map.of("a", 1));
+        when(repository.findByAppIdAndEnvAndVersionAndRevision("app", "prod", "1.1.0", 2L))
+            .thenReturn(Optional.of(ConfigRevision.of(base)));
+
+        ConfigPatch patch = service.mergePatch(current, "1.1.0", 2L, null).orElseThrow();
+        assertEquals(2L, patch.baseRevision());
+        assertEquals(2, patch.patch().get("configs").get("b").asInt());
+        assertFalse(patch.patch().get("configs").has("a"));
+    }
+
+    @Test
+    void historyIsPrunedOffTheWritePath() {
+        RemoteConfig written = config("1.1.0", 60L, Map.of("a", 1));
+        service.record(written);
+
+        verify(mongoTemplate).findAndReplace(any(Query.class), any(ConfigRevision.class),
+            any(FindAndReplaceOptions.class));
+        verify(repository, never()).deleteByAppIdAndEnvAndVersionAndRevisionLessThanEqual(anyString(), anyString(),
+            anyString(), anyLong());
+
+        ArgumentCaptor<Runnable> prune = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(prune.capture(), any(Instant.class));
+        prune.getValue().run();
+        verify(repository).deleteByAppIdAndEnvAndVersionAndRevisionLessThanEqual("app", "prod", "1.1.0", 10L);
+    }
+
+    private static RemoteConfig config(String version, Long revision, Map<String, Object> configs) {
+        return RemoteConfig.builder()
+            .appId("app").env("prod").version(version)
+            .configs(configs)
+            .creationDate(CREATED).lastModDate(CREATED.plusSeconds(revision))
+            .revision(revision)
+            .build();
+    }
+}
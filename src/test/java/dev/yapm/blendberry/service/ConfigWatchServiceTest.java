@@ -0,0 +1,71 @@
+package dev.yapm.blendberry.service;
+
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.exception.RemoteConfigNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConfigWatchServiceTest {
+
+    private static final ConfigKey KEY = new ConfigKey("app", "prod", "1.0.0");
+
+    private static final Instant MOD_DATE = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final RemoteConfigService remoteConfigService = mock(RemoteConfigService.class);
+
+    private final ConfigWatchService watchService = new ConfigWatchService(remoteConfigService,
+        new BlendBerryProperties());
+
+    @Test
+    void staleClientsAreAnsweredRightAway() {
+        when(remoteConfigService.lookup("app", "prod", "1.0.0", MOD_DATE.toString()))
+            .thenReturn(ConfigStatus.NEEDS_TO_UPDATE);
+
+        DeferredResult<ResponseEntity<Integer>> result = watch();
+
+        assertEquals(ResponseEntity.ok(ConfigStatus.NEEDS_TO_UPDATE), result.getResult());
+    }
+
+    @Test
+    void parkedClientsWakeOnlyOnANewModificationDate() {
+        when(remoteConfigService.lookup("app", "prod", "1.0.0", MOD_DATE.toString()))
+            .thenReturn(ConfigStatus.UP_TO_DATE);
+        DeferredResult<ResponseEntity<Integer>> result = watch();
+        assertFalse(result.hasResult());
+
+        watchService.onConfigChanged(new RemoteConfigChangedEvent(KEY, MOD_DATE, false));
+        watchService.onConfigChanged(new RemoteConfigChangedEvent(new ConfigKey("app", "qa", "1.0.0"),
+            MOD_DATE.plusSeconds(1), false));
+        assertFalse(result.hasResult());
+
+        watchService.onConfigsChanged(new RemoteConfigBatchChangedEvent(List.of(
+            new RemoteConfigChangedEvent(KEY, MOD_DATE.plusSeconds(1), false))));
+        assertEquals(ResponseEntity.ok(ConfigStatus.NEEDS_TO_UPDATE), result.getResult());
+    }
+
+    @Test
+    void parkedClientsAreToldAboutDeletions() {
+        when(remoteConfigService.lookup("app", "prod", "1.0.0", MOD_DATE.toString()))
+            .thenReturn(ConfigStatus.UP_TO_DATE);
+        DeferredResult<ResponseEntity<Integer>> result = watch();
+
+        watchService.onConfigChanged(new RemoteConfigChangedEvent(KEY, MOD_DATE, true));
+
+        assertInstanceOf(RemoteConfigNotFoundException.class, result.getResult());
+    }
+
+    private DeferredResult<ResponseEntity<Integer>> watch() {
+        return watchService.watch("app", "prod", "1.0.0", MOD_DATE.toString(), null);
+    }
+}
@@ -0,0 +1,44 @@
+package dev.yapm.blendberry.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonMergePatchTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void onlyChangedMembersArePatched() throws Exception {
+        Optional<JsonNode> patch = JsonMergePatch.diff(
+            json("{'revision': 1, 'configs': {'flags': {'a': true, 'b': false}, 'list': [1, 2], 'old': 'x', 'n': 1}}"),
+            json("{'revision': 2, 'configs': {'flags': {'a': true, 'b': true}, 'list': [1], 'new': {'c': 1}, 'n': 1}}")
+        );
+
+        assertEquals(
+            json("{'revision': 2, 'configs': {'flags': {'b': true}, 'list': [1], 'old': null, 'new': {'c': 1}}}"),
+            patch.orElseThrow()
+        );
+    }
+
+    @Test
+    void equalDocumentsGiveAnEmptyPatch() throws Exception {
+        assertEquals(json("{}"), JsonMergePatch.diff(json("{'a': [1]}"), json("{'a': [1]}")).orElseThrow());
+    }
+
+    @Test
+    void nullMembersCannotBePatched() throws Exception {
+        assertTrue(JsonMergePatch.diff(json("{'a': 1}"), json("{'a': null}")).isEmpty());
+        assertTrue(JsonMergePatch.diff(json("{'a': 1}"), json("{'a': {'b': null}}")).isEmpty());
+        assertEquals(json("{'a': [null]}"), JsonMergePatch.diff(json("{'a': 1}"), json("{'a': [null]}")).orElseThrow());
+    }
+
+    private JsonNode json(String source) throws Exception {
+        return mapper.readTree(source.replace('\'', '"'));
+    }
+}
@@ -0,0 +1,136 @@
+package dev.yapm.blendberry.service;
+
+import com.mongodb.client.result.UpdateResult;
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.entity.LatestConfigPointer;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.repository.LatestConfigPointerRepository;
+import dev.yapm.blendberry.repository.RemoteConfigRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LatestConfigPointerServiceTest {
+
+    private static final Instant CREATED = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final RemoteConfigRepository configRepository = mock(RemoteConfigRepository.class);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    private final TaskScheduler scheduler = mock(TaskScheduler.class);
+
+    private final LatestConfigPointerService pointers = new LatestConfigPointerService(
+        mock(LatestConfigPointerRepository.class), configRepository, mongoTemplate, scheduler,
+        new BlendBerryProperties());
+
+    @Test
+    void advanceOnlyReplacesAPointerToAnOlderConfig() {
+        pointers.advance(config("2.0.0", CREATED));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(LatestConfigPointer.class));
+        assertEquals(new Document("$lte", CREATED), query.getValue().getQueryObject().get("creationDate"));
+        assertEquals(new Document("version", "2.0.0").append("creationDate", CREATED),
+            update.getValue().getUpdateObject().get("$set"));
+    }
+
+    @Test
+    void advanceFromAnOlderConfigThanThePointedOneIsIgnored() {
+        // The unique app/env index refuses the upsert when the pointer matches the app/env but not the date.
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(LatestConfigPointer.class)))
+            .thenThrow(new DuplicateKeyException("appEnvIndex"));
+
+        assertDoesNotThrow(() -> pointers.advance(config("1.0.0", CREATED.minusSeconds(60))));
+        verify(scheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void failedPointerUpdatesAreRetriedInTheBackground() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(LatestConfigPointer.class)))
+            .thenThrow(new DataAccessResourceFailureException("timed out"))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertDoesNotThrow(() -> pointers.advance(config("2.0.0", CREATED)));
+
+        ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(retry.capture(), any(Instant.class));
+        retry.getValue().run();
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), any(Update.class), eq(LatestConfigPointer.class));
+        verify(scheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void deletingTheLatestConfigMovesThePointerBackToThePreviousOne() {
+        when(configRepository.findTopByAppIdAndEnvOrderByCreationDateDesc("app", "prod"))
+            .thenReturn(Optional.of(config("1.0.0", CREATED.minusSeconds(60))));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(LatestConfigPointer.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(configRepository.existsByAppIdAndEnvAndVersion("app", "prod", "1.0.0")).thenReturn(true);
+
+        pointers.retreat(config("2.0.0", CREATED));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(LatestConfigPointer.class));
+        assertEquals("2.0.0", query.getValue().getQueryObject().get("version"));
+        assertEquals(new Document("version", "1.0.0").append("creationDate", CREATED.minusSeconds(60)),
+            update.getValue().getUpdateObject().get("$set"));
+    }
+
+    @Test
+    void retreatingFromAVersionDeletedConcurrentlyMovesOnToTheNextOne() {
+        when(configRepository.findTopByAppIdAndEnvOrderByCreationDateDesc("app", "prod"))
+            .thenReturn(Optional.of(config("1.0.0", CREATED.minusSeconds(60))))
+            .thenReturn(Optional.of(config("0.9.0", CREATED.minusSeconds(120))));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(LatestConfigPointer.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(configRepository.existsByAppIdAndEnvAndVersion("app", "prod", "1.0.0")).thenReturn(false);
+        when(configRepository.existsByAppIdAndEnvAndVersion("app", "prod", "0.9.0")).thenReturn(true);
+
+        pointers.repair(new ConfigKey("app", "prod", "2.0.0"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).updateFirst(query.capture(), any(Update.class), eq(LatestConfigPointer.class));
+        assertEquals("2.0.0", query.getAllValues().get(0).getQueryObject().get("version"));
+        assertEquals("1.0.0", query.getAllValues().get(1).getQueryObject().get("version"));
+    }
+
+    @Test
+    void deletingTheLastConfigRemovesThePointer() {
+        when(configRepository.findTopByAppIdAndEnvOrderByCreationDateDesc("app", "prod")).thenReturn(Optional.empty());
+
+        pointers.retreat(config("1.0.0", CREATED));
+
+        verify(mongoTemplate).remove(any(Query.class), eq(LatestConfigPointer.class));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(LatestConfigPointer.class));
+    }
+
+    private static RemoteConfig config(String version, Instant creationDate) {
+        return RemoteConfig.builder()
+            .appId("app").env("prod").version(version)
+            .creationDate(creationDate).lastModDate(creationDate)
+            .build();
+    }
+}
@@ -0,0 +1,177 @@
+package dev.yapm.blendberry.service;
+
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.cache.RemoteConfigCache;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.dto.LookupRequest;
+import dev.yapm.blendberry.dto.LookupResult;
+import dev.yapm.blendberry.entity.RemoteConfig;
+import dev.yapm.blendberry.exception.RemoteConfigNotFoundException;
+import dev.yapm.blendberry.fallback.DatabaseOutageException;
+import dev.yapm.blendberry.fallback.LocalConfigStore;
+import dev.yapm.blendberry.metrics.RemoteConfigMetrics;
+import dev.yapm.blendberry.repository.ConfigFreshness;
+import dev.yapm.blendberry.repository.RemoteConfigRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RemoteConfigServiceTest {
+
+    private static final Instant MOD_DATE = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final BlendBerryProperties properties = new BlendBerryProperties();
+
+    private final RemoteConfigRepository repository = mock(RemoteConfigRepository.class);
+
+    private final RemoteConfigCache cache = new RemoteConfigCache(properties);
+
+    private final LocalConfigStore localStore = mock(LocalConfigStore.class);
+
+    private final LatestConfigPointerService latestPointers = mock(LatestConfigPointerService.class);
+
+    private final ConfigLayerService layers = mock(ConfigLayerService.class);
+
+    private final RemoteConfigService service = new RemoteConfigService(
+        repository, cache, latestPointers, event -> {},
+        new RemoteConfigMetrics(new SimpleMeterRegistry(), properties), localStore,
+        mock(ConfigRevisionService.class), layers);
+
+    @Test
+    void lookupsAreAnsweredFromTheCachedModificationDate() {
+        when(repository.findFreshnessByAppIdAndEnvAndVersion("app", "prod", "1.0.0"))
+            .thenReturn(Optional.of(new ConfigFreshness("app", "prod", "1.0.0", MOD_DATE)));
+
+        assertEquals(ConfigStatus.UP_TO_DATE, service.lookup("app", "prod", "1.0.0", MOD_DATE.toString()));
+        assertEquals(ConfigStatus.NEEDS_TO_UPDATE, service.lookup("app", "prod", "1.0.0", "2024-01-01T00:00:00Z"));
+        verify(repository, times(1)).findFreshnessByAppIdAndEnvAndVersion("app", "prod", "1.0.0");
+
+        cache.invalidate(new ConfigKey("app", "prod", "1.0.0"));
+        service.lookup("app", "prod", "1.0.0", MOD_DATE.toString());
+        verify(repository, times(2)).findFreshnessByAppIdAndEnvAndVersion("app", "prod", "1.0.0");
+    }
+
+    @Test
+    void readsFallBackToTheLocalCopyAndReportTheOutage() {
+        ConfigKey key = new ConfigKey("app", "prod", "1.0.0");
+        RemoteConfig copy = RemoteConfig.builder()
+            .appId("app").env("prod").version("1.0.0")
+            .configs(Map.of("a", 1))
+            .creationDate(MOD_DATE).lastModDate(MOD_DATE)
+            .revision(1L)
+            .build();
+        DataAccessResourceFailureException outage = new DataAccessResourceFailureException("timed out");
+        when(repository.findByAppIdAndEnvAndVersion("app", "prod", "1.0.0")).thenThrow(outage);
+        when(localStore.find(key)).thenReturn(Optional.of(copy));
+
+        assertEquals(Optional.of(copy), service.findOne("app", "prod", "1.0.0"));
+        verify(localStore).recordFailure(outage);
+    }
+
+    @Test
+    void readsSkipTheDatabaseDuringAKnownOutage() {
+        ConfigKey key = new ConfigKey("app", "prod", "1.0.0");
+        doThrow(new DatabaseOutageException(new DataAccessResourceFailureException("timed out")))
+            .when(localStore).checkDatabase();
+        when(localStore.findFreshness(List.of(key)))
+            .thenReturn(Optional.of(List.of(new ConfigFreshness("app", "prod", "1.0.0", MOD_DATE))));
+
+        assertEquals(ConfigStatus.UP_TO_DATE, service.lookup("app", "prod", "1.0.0", MOD_DATE.toString()));
+        verify(repository, never()).findFreshnessByAppIdAndEnvAndVersion("app", "prod", "1.0.0");
+    }
+
+    @Test
+    void batchLookupsQueryOnlyUncachedConfigsAtOnce() {
+        ConfigKey prod = new ConfigKey("app", "prod", "1.0.0");
+        ConfigKey qa = new ConfigKey("app", "qa", "1.0.0");
+        when(repository.findFreshnessByKeys(Set.of(prod, qa)))
+            .thenReturn(List.of(new ConfigFreshness("app", "prod", "1.0.0", MOD_DATE)));
+        List<LookupRequest> requests = List.of(
+            new LookupRequest("qa", "1.0.0", MOD_DATE.toString()),
+            new LookupRequest("prod", "1.0.0", MOD_DATE.toString()),
+            new LookupRequest("prod", "1.0.0", "2024-01-01T00:00:00Z"));
+        List<LookupResult> expected = List.of(
+            new LookupResult("qa", "1.0.0", ConfigStatus.NOT_FOUND),
+            new LookupResult("prod", "1.0.0", ConfigStatus.UP_TO_DATE),
+            new LookupResult("prod", "1.0.0", ConfigStatus.NEEDS_TO_UPDATE));
+
+        assertEquals(expected, service.lookupAll("app", requests));
+        assertEquals(expected, service.lookupAll("app", requests));
+        verify(repository, times(1)).findFreshnessByKeys(Set.of(prod, qa));
+        verify(repository, never()).findFreshnessByAppIdAndEnvAndVersion("app", "prod", "1.0.0");
+    }
+
+    @Test
+    void deletesMissedBecauseOfAStaleInheritedFlagAreRetried() {
+        ConfigKey key = new ConfigKey("app", "prod", "1.0.0");
+        RemoteConfig config = RemoteConfig.builder()
+            .appId("app").env("prod").version("1.0.0")
+            .configs(Map.of("a", 1))
+            .creationDate(MOD_DATE).lastModDate(MOD_DATE)
+            .revision(1L)
+            .inherited(true)
+            .build();
+        when(repository.deleteByKey(key, null)).thenReturn(Optional.empty(), Optional.of(config));
+        when(layers.releaseUnused(key)).thenReturn(true);
+
+        assertEquals(config, service.deleteConfig("app", "prod", "1.0.0"));
+        verify(repository, times(2)).deleteByKey(key, null);
+    }
+
+    @Test
+    void latestReadsRepairAPointerLeftOnADeletedVersion() {
+        RemoteConfig previous = RemoteConfig.builder()
+            .appId("app").env("prod").version("1.0.0")
+            .configs(Map.of("a", 1))
+            .creationDate(MOD_DATE).lastModDate(MOD_DATE)
+            .revision(1L)
+            .build();
+        when(latestPointers.resolve("app", "prod")).thenReturn(Optional.of("2.0.0"));
+        when(repository.findByAppIdAndEnvAndVersion("app", "prod", "2.0.0")).thenReturn(Optional.empty());
+        when(repository.findTopByAppIdAndEnvOrderByCreationDateDesc("app", "prod")).thenReturn(Optional.of(previous));
+
+        assertEquals(Optional.of(previous), service.findOne("app", "prod", "latest"));
+        verify(latestPointers).repair(new ConfigKey("app", "prod", "2.0.0"));
+    }
+
+    @Test
+    void missingConfigsAreCachedUntilTheyAreSaved() {
+        RemoteConfig config = RemoteConfig.builder()
+            .appId("app").env("prod").version("2.0.0")
+            .configs(Map.of("a", 1))
+            .creationDate(MOD_DATE).lastModDate(MOD_DATE)
+            .revision(1L)
+            .build();
+        when(repository.findByAppIdAndEnvAndVersion("app", "prod", "2.0.0"))
+            .thenReturn(Optional.empty(), Optional.of(config));
+        when(layers.prepare(config)).thenReturn(config);
+        when(repository.save(config)).thenReturn(config);
+
+        assertEquals(Optional.empty(), service.findOne("app", "prod", "2.0.0"));
+        assertEquals(Optional.empty(), service.findOne("app", "prod", "2.0.0"));
+        assertThrows(RemoteConfigNotFoundException.class,
+            () -> service.lookup("app", "prod", "2.0.0", MOD_DATE.toString()));
+        verify(repository, times(1)).findByAppIdAndEnvAndVersion("app", "prod", "2.0.0");
+        verify(repository, never()).findFreshnessByAppIdAndEnvAndVersion("app", "prod", "2.0.0");
+
+        service.save(config);
+
+        assertEquals(Optional.of(config), service.findOne("app", "prod", "2.0.0"));
+        verify(repository, times(2)).findByAppIdAndEnvAndVersion("app", "prod", "2.0.0");
+    }
+}
@@ -0,0 +1,106 @@
+package dev.yapm.blendberry.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import dev.yapm.blendberry.cache.ConfigKey;
+import dev.yapm.blendberry.cache.RemoteConfigCache;
+import dev.yapm.blendberry.config.BlendBerryProperties;
+import dev.yapm.blendberry.dto.ImportReport;
+import dev.yapm.blendberry.repository.RemoteConfigRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RemoteConfigTransferServiceTest {
+
+    private final BlendBerryProperties properties = new BlendBerryProperties();
+
+    private final RemoteConfigRepository repository = mock(RemoteConfigRepository.class);
+
+    private final ConfigLayerService layers = mock(ConfigLayerService.class);
+
+    private final List<Object> events = new ArrayList<>();
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+
+    @AfterEach
+    void closeValidatorFactory() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void rejectedLinesAreReportedUpToTheLimitAndCounted() throws IOException {
+        properties.getTransfer().setMaxReportedErrors(2);
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getMatchedCount()).thenReturn(1);
+        when(repository.upsertAll(anyList())).thenReturn(result);
+
+        ImportReport report = service().importFrom(ndjson(
+            "{\"appId\":\"app\",\"env\":\"prod\",\"version\":\"1.0.0\",\"configs\":{}}",
+            "not json",
+            "",
+            "{\"appId\":\"app\",\"version\":\"1.0.0\"}",
+            "{\"appId\":"));
+
+        assertEquals(4, report.getReceived());
+        assertEquals(1, report.getUpdated());
+        assertEquals(3, report.getRejected());
+        assertEquals(2, report.getErrors().size());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertEquals(4, report.getErrors().get(1).getLine());
+        assertEquals("env must not be null", report.getErrors().get(1).getMessage());
+    }
+
+    @Test
+    void eachFlushPublishesOneBatchAndRefreshesOnlyLayers() throws IOException {
+        ConfigKey base = new ConfigKey("app", "prod", "1.0.0");
+        ConfigKey child = new ConfigKey("app", "prod-eu", "1.0.0");
+        ConfigKey standalone = new ConfigKey("app", "qa", "1.0.0");
+        when(repository.upsertAll(anyList())).thenReturn(mock(BulkWriteResult.class));
+        when(repository.findParentsAmong(any())).thenReturn(Set.of(base));
+
+        service().importFrom(ndjson(
+            "{\"appId\":\"app\",\"env\":\"prod\",\"version\":\"1.0.0\",\"configs\":{\"a\":1}}",
+            "{\"appId\":\"app\",\"env\":\"prod-eu\",\"version\":\"1.0.0\",\"parent\":{\"env\":\"prod\","
+                + "\"version\":\"1.0.0\"},\"layer\":{\"b\":2}}",
+            "{\"appId\":\"app\",\"env\":\"qa\",\"version\":\"1.0.0\",\"configs\":{}}"));
+
+        assertEquals(1, events.size());
+        RemoteConfigBatchChangedEvent batch = (RemoteConfigBatchChangedEvent) events.get(0);
+        assertEquals(List.of(base, child, standalone),
+            batch.changes().stream().map(RemoteConfigChangedEvent::key).toList());
+        verify(layers).refresh(base);
+        verify(layers).refresh(child);
+        verify(layers, never()).refresh(standalone);
+        verify(repository).markInherited(Set.of(base));
+    }
+
+    private RemoteConfigTransferService service() {
+        return new RemoteConfigTransferService(repository, new RemoteConfigCache(properties),
+            mock(LatestConfigPointerService.class), events::add, layers, objectMapper,
+            validatorFactory.getValidator(), properties);
+    }
+
+    private static ByteArrayInputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}